@@ -70,6 +70,7 @@ show_help() {
     echo "  ./dev.sh stop      - Ferma i container"
     echo "  ./dev.sh restart   - Riavvia senza rebuild"
     echo "  ./dev.sh logs      - Mostra i log"
+    echo "  ./dev.sh explain   - Verifica che le query usino gli indici (test su PostgreSQL, richiede Docker)"
     echo "  ./dev.sh help      - Mostra questo help"
     echo ""
     echo "🚀 HOT RELOAD AUTOMATICO: Modifica qualsiasi file Java e l'app si aggiorna automaticamente!"
@@ -152,6 +153,11 @@ case "$1" in
         docker-compose logs -f app
         ;;
         
+    "explain")
+        echo "🔍 Verifica dei piani di esecuzione delle query (PostgreSQL in un container di test)..."
+        ./mvnw -B test -Dtest=TaskRepositoryQueryPlanTest || exit 1
+        ;;
+        
     "help"|"")
         show_help
         ;;
@@ -0,0 +1,99 @@
+package com.example.taskmanager.benchmark;
+
+import com.example.taskmanager.dto.TaskCursor;
+import com.example.taskmanager.dto.TaskCursorPage;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.Task;
+import com.example.taskmanager.repository.TaskRepository;
+import com.example.taskmanager.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// Ordinamento personalizzato (stato, priorità, id desc): offset contro cursore, prima pagina e pagina profonda
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CustomOrderBenchmark {
+    
+    private static final int PAGE_SIZE = 20;
+    
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+    
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskRepository taskRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private PageRequest deepPage;
+    private String deepCursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededContext.start(rows);
+        taskService = context.getBean(TaskService.class);
+        taskRepository = context.getBean(TaskRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        
+        // Pagina a circa il 90% del risultato; il cursore equivalente si ricava dall'ultima riga della pagina precedente
+        int deepPageNumber = (rows / PAGE_SIZE) * 9 / 10;
+        deepPage = PageRequest.of(deepPageNumber, PAGE_SIZE);
+        Page<TaskResponse> previous = taskService.getAllTasks(PageRequest.of(deepPageNumber - 1, PAGE_SIZE));
+        TaskResponse last = previous.getContent().get(PAGE_SIZE - 1);
+        deepCursor = TaskCursor.of(last).encode();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public Page<TaskResponse> customOrderOffsetFirstPage() {
+        return taskService.getAllTasks(PageRequest.of(0, PAGE_SIZE));
+    }
+    
+    @Benchmark
+    public Page<TaskResponse> customOrderOffsetDeepPage() {
+        return taskService.getAllTasks(deepPage);
+    }
+    
+    @Benchmark
+    public TaskCursorPage customOrderCursorFirstPage() {
+        return taskService.getTasksAfterCursor(null, PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public TaskCursorPage customOrderCursorDeepPage() {
+        return taskService.getTasksAfterCursor(deepCursor, PAGE_SIZE);
+    }
+    
+    // Riferimento: ordinamento sul solo indice primario, senza ranghi
+    @Benchmark
+    public Page<Task> primaryKeyOrderFirstPage() {
+        return readOnlyTransaction.execute(status ->
+                taskRepository.findAll(PageRequest.of(0, PAGE_SIZE, Sort.by("id").descending())));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.taskmanager.benchmark;
+
+import com.example.taskmanager.TaskmanagerApplication;
+import com.example.taskmanager.constants.TaskConstants;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import com.example.taskmanager.service.TaskDueDateIndex;
+import com.example.taskmanager.service.TaskStatsStore;
+import com.example.taskmanager.service.TaskSuggestIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Contesto Spring senza web su H2 in memoria, popolato con un numero fisso di task per i benchmark
+final class SeededContext {
+    
+    private static final int INSERT_CHUNK = 10_000;
+    private static final String[] WORDS = {
+        "analisi", "deploy", "database", "interfaccia", "report", "cliente", "fattura", "backup",
+        "migrazione", "test", "documentazione", "riunione", "ottimizzare", "sicurezza", "api", "revisione"
+    };
+    
+    // Indici delle migrazioni Flyway (lo schema qui è creato da Hibernate), nella forma supportata da H2:
+    // id DESC al posto dell'espressione (-id), per cui H2 ordina dall'indice solo stato e priorità,
+    // e indici completi al posto di quelli parziali
+    private static final String[] MIGRATION_INDEXES = {
+        "CREATE INDEX idx_tasks_custom_order ON tasks (status_rank, priority_rank, id DESC)",
+        "CREATE INDEX idx_tasks_created_at ON tasks (created_at)",
+        "CREATE INDEX idx_tasks_updated_at ON tasks (updated_at)",
+        "CREATE INDEX idx_tasks_status_priority_created_at ON tasks (status, priority, created_at DESC)",
+        "CREATE INDEX idx_tasks_status_created_at ON tasks (status, created_at DESC)",
+        "CREATE INDEX idx_tasks_priority_created_at ON tasks (priority, created_at DESC)",
+        "CREATE INDEX idx_tasks_open_due_date ON tasks (due_date)",
+        "CREATE INDEX idx_tasks_archive_status ON tasks_archive (status)",
+        "CREATE INDEX idx_tasks_archive_custom_order ON tasks_archive (status_rank, priority_rank, id DESC)"
+    };
+    
+    private SeededContext() {
+    }
+    
+    static ConfigurableApplicationContext start(int rows, String... extraProperties) {
+        ConfigurableApplicationContext context = run(rows, extraProperties);
+        seed(context.getBean(JdbcTemplate.class), rows);
+        // Statistiche e suggerimenti si caricano all'avvio, quando la tabella era ancora vuota
+        context.getBean(TaskStatsStore.class).reconcile();
+        context.getBean(TaskSuggestIndex.class).build();
+        context.getBean(TaskDueDateIndex.class).build();
+        return context;
+    }
+    
+    private static ConfigurableApplicationContext run(int rows, String... extraProperties) {
+        // OPTIMIZE_REUSE_RESULTS=FALSE: H2 non restituisce il risultato dell'esecuzione precedente di una query
+        // identica su una tabella invariata, altrimenti i benchmark di lettura misurerebbero quella cache
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:bench" + rows + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE;OPTIMIZE_REUSE_RESULTS=FALSE",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "spring.jpa.hibernate.ddl-auto=create",
+                "spring.jpa.show-sql=false",
+                "spring.flyway.enabled=false",
+                // Le task concluse del seed risalgono al 2025: l'archiviazione ne sposterebbe metà durante la misura
+                "taskmanager.archive.enabled=false",
+                "logging.level.root=WARN",
+                "logging.level.com.example.taskmanager=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+        properties.addAll(List.of(extraProperties));
+        // Passate come argomenti da riga di comando per avere precedenza su application.yml
+        return new SpringApplicationBuilder(TaskmanagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+    
+    private static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        TaskStatus[] statuses = TaskStatus.values();
+        TaskPriority[] priorities = TaskPriority.values();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        
+        for (int from = 1; from <= rows; from += INSERT_CHUNK) {
+            List<Object[]> batch = new ArrayList<>(INSERT_CHUNK);
+            for (int id = from; id < from + INSERT_CHUNK && id <= rows; id++) {
+                TaskStatus status = statuses[id % statuses.length];
+                TaskPriority priority = priorities[(id / 7) % priorities.length];
+                Timestamp created = Timestamp.valueOf(base.plusMinutes(id));
+                batch.add(new Object[] {
+                    (long) id,
+                    WORDS[id % WORDS.length] + " " + WORDS[(id / 3) % WORDS.length] + " " + id,
+                    "Descrizione della task " + id + " su " + WORDS[(id / 5) % WORDS.length],
+                    status.name(), priority.name(), status.getSortRank(), priority.getSortRank(),
+                    Timestamp.valueOf(base.plusDays(id % 400)), created, created, 0L
+                });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO tasks (id, title, description, status, priority, status_rank, " +
+                    "priority_rank, due_date, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        }
+        // Creati dopo l'inserimento, come farebbe una migrazione su una tabella già popolata
+        for (String index : MIGRATION_INDEXES) {
+            jdbcTemplate.execute(index);
+        }
+        jdbcTemplate.execute("ANALYZE");
+        // Lascia libero un intero blocco dell'optimizer pooled oltre agli id già usati
+        jdbcTemplate.execute("ALTER SEQUENCE tasks_id_seq RESTART WITH " + (rows + TaskConstants.ID_ALLOCATION_SIZE + 1));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.taskmanager.benchmark;
+
+import com.example.taskmanager.config.TaskResponseSerializer;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.Task;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Costruzione di TaskResponse e serializzazione JSON (stessa configurazione Jackson di Spring Boot).
+// I metodi *Bean usano il serializer per introspezione di Jackson con tutti i campi, i *Lean TaskResponseSerializer:
+// con -prof gc confrontare gc.alloc.rate.norm, le dimensioni in byte vengono stampate al setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskResponseBenchmark {
+    
+    private Task task;
+    private TaskResponse response;
+    private List<TaskResponse> page;
+    private ObjectMapper beanMapper;
+    private ObjectMapper leanMapper;
+    
+    @Setup
+    public void setUp() {
+        task = new Task("Preparare il rilascio", "Verificare changelog, migrazioni e note di rilascio");
+        task.setId(42L);
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        task.setPriority(TaskPriority.HIGH);
+        task.setDueDate(LocalDateTime.of(2026, 3, 1, 18, 0));
+        task.setCreatedAt(LocalDateTime.of(2026, 1, 10, 9, 30, 12, 123_456_000));
+        task.setUpdatedAt(LocalDateTime.of(2026, 1, 12, 16, 5, 44, 654_321_000));
+        task.setVersion(3L);
+        
+        response = new TaskResponse(task);
+        page = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            page.add(new TaskResponse(task));
+        }
+        beanMapper = Jackson2ObjectMapperBuilder.json().build();
+        leanMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new SimpleModule().addSerializer(TaskResponse.class, new TaskResponseSerializer()))
+                .build();
+        
+        try {
+            System.out.printf("%nbean: task %d byte, pagina di 20 %d byte; lean: task %d byte, pagina di 20 %d byte%n",
+                    beanMapper.writeValueAsBytes(response).length, beanMapper.writeValueAsBytes(page).length,
+                    leanMapper.writeValueAsBytes(response).length, leanMapper.writeValueAsBytes(page).length);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    @Benchmark
+    public TaskResponse constructFromEntity() {
+        return new TaskResponse(task);
+    }
+    
+    @Benchmark
+    public TaskResponse constructFromProjection() {
+        return new TaskResponse(42L, "Preparare il rilascio", "Verificare changelog, migrazioni e note di rilascio",
+                TaskStatus.IN_PROGRESS, TaskPriority.HIGH, task.getDueDate(), task.getCreatedAt(),
+                task.getUpdatedAt(), 3L);
+    }
+    
+    @Benchmark
+    public byte[] serializeSingleBean() throws JsonProcessingException {
+        return beanMapper.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public byte[] serializeSingleLean() throws JsonProcessingException {
+        return leanMapper.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public byte[] serializePageOf20Bean() throws JsonProcessingException {
+        return beanMapper.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public byte[] serializePageOf20Lean() throws JsonProcessingException {
+        return leanMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.taskmanager.benchmark;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import com.example.taskmanager.repository.TaskRepository;
+import com.example.taskmanager.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Letture principali di TaskService su un database H2 popolato con 10k, 100k e 1M task
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskServiceReadBenchmark {
+    
+    // Task richieste di frequente: molte meno della dimensione della cache (TASK_CACHE_MAX_SIZE), sempre hit
+    private static final int HOT_IDS = 100;
+    
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+    
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskRepository taskRepository;
+    private TransactionTemplate readOnlyTransaction;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededContext.start(rows);
+        taskService = context.getBean(TaskService.class);
+        taskRepository = context.getBean(TaskRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        for (long id = 1; id <= HOT_IDS; id++) {
+            taskService.getTaskById(id);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+    
+    private long hotId() {
+        return ThreadLocalRandom.current().nextLong(1, HOT_IDS + 1);
+    }
+    
+    @Benchmark
+    public TaskResponse getTaskByIdCached() {
+        return taskService.getTaskById(hotId());
+    }
+    
+    @Benchmark
+    public TaskResponse getTaskByIdFromDatabase() {
+        return readOnlyTransaction.execute(status -> taskRepository.findResponseById(randomId()).orElseThrow());
+    }
+    
+    @Benchmark
+    public Page<TaskResponse> getAllTasksFirstPage() {
+        return taskService.getAllTasks(PageRequest.of(0, 20));
+    }
+    
+    @Benchmark
+    public TaskService.TaskStats getTaskStats() {
+        return taskService.getTaskStats();
+    }
+    
+    @Benchmark
+    public List<TaskResponse> getOverdueTasksFromIndex() {
+        return taskService.getOverdueTasks();
+    }
+    
+    @Benchmark
+    public List<TaskResponse> getOverdueTasksFromDatabase() {
+        return readOnlyTransaction.execute(status -> taskRepository.findOverdueResponses(LocalDateTime.now()));
+    }
+    
+    @Benchmark
+    public Page<TaskResponse> searchTasksWithFilters() {
+        return taskService.searchTasksWithFilters("report", TaskStatus.PENDING, null,
+                PageRequest.of(0, 20, Sort.by("createdAt").descending()));
+    }
+    
+    @Benchmark
+    public Page<TaskResponse> searchTasksFullText() {
+        return taskService.searchTasksFullText("migrazione", PageRequest.of(0, 20));
+    }
+    
+    // Confronto introdotto con le proiezioni: DTO costruito dalla query contro entità gestite convertite dopo
+    @Benchmark
+    public List<TaskResponse> tasksByPriorityProjection() {
+        return readOnlyTransaction.execute(status -> taskRepository.findResponsesByPriority(TaskPriority.URGENT));
+    }
+    
+    @Benchmark
+    public List<TaskResponse> tasksByPriorityEntity() {
+        return readOnlyTransaction.execute(status -> taskRepository.findByPriority(TaskPriority.URGENT).stream()
+                .map(TaskResponse::new)
+                .toList());
+    }
+}
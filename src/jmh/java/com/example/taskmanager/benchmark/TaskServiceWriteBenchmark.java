@@ -0,0 +1,79 @@
+package com.example.taskmanager.benchmark;
+
+import com.example.taskmanager.dto.TaskRequest;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import com.example.taskmanager.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Scritture principali di TaskService (creazione, cambio stato, aggiornamento completo)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskServiceWriteBenchmark {
+    
+    @Param({"10000", "100000"})
+    public int rows;
+    
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededContext.start(rows);
+        taskService = context.getBean(TaskService.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+    
+    private static TaskRequest newRequest() {
+        TaskRequest request = new TaskRequest("Task da benchmark", "Creata durante la misura delle scritture");
+        request.setPriority(TaskPriority.MEDIUM);
+        request.setDueDate(LocalDateTime.now().plusDays(7));
+        return request;
+    }
+    
+    @Benchmark
+    public TaskResponse createTask() {
+        return taskService.createTask(newRequest());
+    }
+    
+    @Benchmark
+    public TaskResponse updateTaskStatus() {
+        TaskStatus status = ThreadLocalRandom.current().nextBoolean() ? TaskStatus.IN_PROGRESS : TaskStatus.PENDING;
+        return taskService.updateTaskStatus(randomId(), status);
+    }
+    
+    @Benchmark
+    public TaskResponse updateTask() {
+        return taskService.updateTask(randomId(), newRequest());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.taskmanager.benchmark;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON contro Smile e CBOR (BinaryFormatsConfig) su una pagina di /api/tasks e su una task singola.
+// La dimensione dei payload è stampata nel setup di ogni fork
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+    
+    @Param({"json", "smile", "cbor"})
+    private String format;
+    
+    @Param({"20", "100"})
+    private int pageSize;
+    
+    private ObjectMapper objectMapper;
+    private TaskResponse task;
+    private Page<TaskResponse> page;
+    
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory(format)).build();
+        
+        List<TaskResponse> content = new ArrayList<>(pageSize);
+        LocalDateTime base = LocalDateTime.of(2026, 1, 10, 9, 30, 12, 123_456_000);
+        for (long id = 1; id <= pageSize; id++) {
+            content.add(new TaskResponse(id, "Preparare il rilascio " + id,
+                    "Verificare changelog, migrazioni e note di rilascio",
+                    TaskStatus.values()[(int) (id % TaskStatus.values().length)],
+                    TaskPriority.values()[(int) (id % TaskPriority.values().length)],
+                    base.plusDays(id), base.plusMinutes(id), base.plusMinutes(id * 2), id % 4));
+        }
+        task = content.get(0);
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 5_000);
+        
+        System.out.printf("%n%s: task singola %d byte, pagina di %d task %d byte%n", format,
+                objectMapper.writeValueAsBytes(task).length, pageSize, objectMapper.writeValueAsBytes(page).length);
+    }
+    
+    private static JsonFactory factory(String format) {
+        return switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+    }
+    
+    @Benchmark
+    public byte[] encodeSingle() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(task);
+    }
+    
+    @Benchmark
+    public byte[] encodePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
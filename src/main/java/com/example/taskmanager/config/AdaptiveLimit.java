@@ -0,0 +1,105 @@
+package com.example.taskmanager.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Limite di concorrenza adattivo in stile gradient (Netflix concurrency-limits): confronta la latenza recente
+// con quella di lungo periodo. Quando la latenza sale oltre la tolleranza il limite scende verso la
+// concorrenza che il database regge; quando è normale risale di una piccola coda (radice del limite).
+public class AdaptiveLimit {
+    
+    // La latenza recente può superare del 50% quella di lungo periodo prima che il limite scenda
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 600;
+    private static final int SHORT_WINDOW = 10;
+    // Riduzione a ogni richiesta fallita per database sovraccarico (bulkhead o pool esauriti)
+    private static final double DROP_FACTOR = 0.9;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+    
+    // Medie esponenziali della latenza in nanosecondi, aggiornate sotto il lock dell'istanza
+    private double longRtt;
+    private double shortRtt;
+    private long samples;
+    
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+    
+    // Occupa un posto se la concorrenza è sotto il limite; restituisce le richieste in corso prima di questa,
+    // -1 se il limite è raggiunto
+    public int tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return -1;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+    
+    // Libera il posto e usa la durata della richiesta come campione di latenza
+    public void release(long rttNanos, int inflightAtStart) {
+        inflight.decrementAndGet();
+        update(rttNanos, inflightAtStart);
+    }
+    
+    // Libera il posto di una richiesta fallita per sovraccarico: il limite scende subito
+    public synchronized void releaseDropped() {
+        inflight.decrementAndGet();
+        limit = Math.max(minLimit, limit * DROP_FACTOR);
+    }
+    
+    public int getLimit() {
+        return (int) limit;
+    }
+    
+    public int getInflight() {
+        return inflight.get();
+    }
+    
+    // Richieste in corso rispetto al limite (1 = pieno)
+    public double getUtilization() {
+        return inflight.get() / limit;
+    }
+    
+    // Latenza di riferimento (media di lungo periodo) in secondi
+    public synchronized double getBaselineLatencySeconds() {
+        return longRtt / 1e9;
+    }
+    
+    private synchronized void update(long rttNanos, int inflightAtStart) {
+        samples++;
+        if (samples == 1) {
+            longRtt = rttNanos;
+            shortRtt = rttNanos;
+            return;
+        }
+        // Nei primi campioni la media lunga è la media semplice (finestra pari ai campioni visti)
+        longRtt = average(longRtt, rttNanos, Math.min(samples, LONG_WINDOW));
+        shortRtt = average(shortRtt, rttNanos, Math.min(samples, SHORT_WINDOW));
+        // Latenza recente molto più bassa (es. dopo un rallentamento passato): il riferimento scende più in fretta
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+        // Con poche richieste in corso la latenza non dice nulla sul limite, che altrimenti crescerebbe all'infinito
+        if (inflightAtStart < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        double smoothed = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+    
+    private static double average(double current, long sample, long window) {
+        return current + (sample - current) / window;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.service.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Abilita la cache delle task; dimensione e TTL sono in spring.cache.caffeine.spec
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    // Caricamenti in corso delle task a cache vuota: condivisi tra TaskService, che vi accorpa i miss,
+    // e TaskCacheInvalidator, che li stacca dopo ogni modifica
+    @Bean
+    public SingleFlight<Long, TaskResponse> taskLoads(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("task", meterRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.taskmanager.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+// Limiti di concorrenza adattivi sulle API delle task (taskmanager.limiter.enabled).
+// Esclusi il flusso SSE (ha già un tetto di connessioni) e l'export in streaming (/all?format=..., escluso
+// dall'interceptor perché ha lo stesso path di /all): sono connessioni lunghe, la loro durata non è una misura
+// della latenza del database
+@Configuration
+@ConditionalOnProperty(name = "taskmanager.limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+    
+    private final ConcurrencyLimitInterceptor interceptor;
+    
+    public ConcurrencyLimitConfig(@Value("${taskmanager.limiter.initial-limit:20}") int initialLimit,
+                                  @Value("${taskmanager.limiter.min-limit:4}") int minLimit,
+                                  @Value("${taskmanager.limiter.max-limit:200}") int maxLimit,
+                                  @Value("${taskmanager.limiter.shed-threshold:0.8}") double shedThreshold,
+                                  @Value("${taskmanager.limiter.retry-after:1s}") Duration retryAfter) {
+        this.interceptor = new ConcurrencyLimitInterceptor(initialLimit, minLimit, maxLimit, shedThreshold, retryAfter);
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor)
+                .addPathPatterns("/api/tasks/**", "/api/tasks")
+                .excludePathPatterns("/api/tasks/events");
+    }
+    
+    @Bean
+    public MeterBinder concurrencyLimitMetrics() {
+        return registry -> {
+            for (EndpointGroup group : EndpointGroup.values()) {
+                AdaptiveLimit limit = interceptor.getLimit(group);
+                Gauge.builder("taskmanager.limiter.limit", limit, AdaptiveLimit::getLimit)
+                        .description("Limite di concorrenza corrente del gruppo di endpoint")
+                        .tag("group", group.tag())
+                        .register(registry);
+                Gauge.builder("taskmanager.limiter.inflight", limit, AdaptiveLimit::getInflight)
+                        .description("Richieste in corso nel gruppo di endpoint")
+                        .tag("group", group.tag())
+                        .register(registry);
+                Gauge.builder("taskmanager.limiter.latency", limit, AdaptiveLimit::getBaselineLatencySeconds)
+                        .description("Latenza di riferimento del gruppo (media di lungo periodo)")
+                        .baseUnit("seconds")
+                        .tag("group", group.tag())
+                        .register(registry);
+                FunctionCounter.builder("taskmanager.limiter.rejected", interceptor, i -> i.getRejectedCount(group))
+                        .description("Richieste rifiutate con 503")
+                        .tags("group", group.tag(), "reason", "limit")
+                        .register(registry);
+                FunctionCounter.builder("taskmanager.limiter.rejected", interceptor, i -> i.getShedCount(group))
+                        .description("Richieste rifiutate con 503")
+                        .tags("group", group.tag(), "reason", "shed")
+                        .register(registry);
+            }
+        };
+    }
+}
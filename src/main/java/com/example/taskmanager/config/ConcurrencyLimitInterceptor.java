@@ -0,0 +1,118 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.constants.TaskConstants;
+import com.example.taskmanager.exception.ConcurrencyLimitExceededException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Limite di concorrenza adattivo per gruppo di endpoint: oltre il limite la richiesta riceve subito 503 con
+// Retry-After invece di accodarsi davanti al database. Le ricerche vengono scartate anche quando un altro
+// gruppo supera shedThreshold del suo limite, così scritture e letture puntuali restano servite.
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+    
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+    
+    private final Map<EndpointGroup, AdaptiveLimit> limits = new EnumMap<>(EndpointGroup.class);
+    private final Map<EndpointGroup, LongAdder> rejected = new EnumMap<>(EndpointGroup.class);
+    private final Map<EndpointGroup, LongAdder> shed = new EnumMap<>(EndpointGroup.class);
+    private final double shedThreshold;
+    private final long retryAfterSeconds;
+    
+    public ConcurrencyLimitInterceptor(int initialLimit, int minLimit, int maxLimit,
+                                       double shedThreshold, Duration retryAfter) {
+        for (EndpointGroup group : EndpointGroup.values()) {
+            limits.put(group, new AdaptiveLimit(initialLimit, minLimit, maxLimit));
+            rejected.put(group, new LongAdder());
+            shed.put(group, new LongAdder());
+        }
+        this.shedThreshold = shedThreshold;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : request.getRequestURI();
+        if (isStreamingExport(request, path)) {
+            return true;
+        }
+        EndpointGroup group = EndpointGroup.of(request.getMethod(), path);
+        
+        if (group.isSheddable() && underPressure()) {
+            shed.get(group).increment();
+            throw new ConcurrencyLimitExceededException(TaskConstants.SEARCH_SHED_MESSAGE, retryAfterSeconds);
+        }
+        AdaptiveLimit limit = limits.get(group);
+        int inflight = limit.tryAcquire();
+        if (inflight < 0) {
+            rejected.get(group).increment();
+            throw new ConcurrencyLimitExceededException(TaskConstants.CONCURRENCY_LIMIT_MESSAGE, retryAfterSeconds);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limit, inflight, System.nanoTime()));
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit)) {
+            return;
+        }
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        // 503 dal database (bulkhead o pool esauriti, vedi GlobalExceptionHandler): segnale di sovraccarico
+        if (response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            permit.limit.releaseDropped();
+        } else {
+            permit.limit.release(System.nanoTime() - permit.startNanos, permit.inflightAtStart);
+        }
+    }
+    
+    public AdaptiveLimit getLimit(EndpointGroup group) {
+        return limits.get(group);
+    }
+    
+    public long getRejectedCount(EndpointGroup group) {
+        return rejected.get(group).sum();
+    }
+    
+    public long getShedCount(EndpointGroup group) {
+        return shed.get(group).sum();
+    }
+    
+    // Export in streaming (GET /api/tasks/all con format, vedi TaskController.exportAllTasks): stesso path
+    // della lista completa, che invece resta fra le letture limitate
+    private static boolean isStreamingExport(HttpServletRequest request, String path) {
+        return "/api/tasks/all".equals(path) && request.getParameter("format") != null;
+    }
+    
+    // Un gruppo non scartabile è vicino al suo limite: il database sta rallentando
+    private boolean underPressure() {
+        for (Map.Entry<EndpointGroup, AdaptiveLimit> entry : limits.entrySet()) {
+            if (!entry.getKey().isSheddable() && entry.getValue().getUtilization() >= shedThreshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static class Permit {
+        
+        private final AdaptiveLimit limit;
+        private final int inflightAtStart;
+        private final long startNanos;
+        
+        Permit(AdaptiveLimit limit, int inflightAtStart, long startNanos) {
+            this.limit = limit;
+            this.inflightAtStart = inflightAtStart;
+            this.startNanos = startNanos;
+        }
+    }
+}
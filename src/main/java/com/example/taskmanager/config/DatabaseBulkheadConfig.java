@@ -0,0 +1,85 @@
+package com.example.taskmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Bulkhead davanti al database, attivo solo in modalità virtual thread (spring.threads.virtual.enabled)
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "taskmanager.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseBulkheadConfig {
+    
+    private static final Logger log = LoggerFactory.getLogger(DatabaseBulkheadConfig.class);
+    
+    // Ordine dei post processor sul dataSource: prima il bulkhead sul pool, poi ReadReplicaConfig
+    static final int BULKHEAD_ORDER = Ordered.LOWEST_PRECEDENCE - 10;
+    
+    // Avvolge il pool Hikari; con max-concurrent a 0 i permessi sono pari alla dimensione del pool
+    @Bean
+    static BeanPostProcessor databaseBulkheadPostProcessor(
+            @Value("${taskmanager.bulkhead.max-concurrent:0}") int maxConcurrent,
+            @Value("${taskmanager.bulkhead.acquire-timeout:2s}") Duration acquireTimeout) {
+        return new BulkheadPostProcessor(maxConcurrent, acquireTimeout);
+    }
+    
+    // Metriche del bulkhead del primario (il dataSource può essere avvolto anche da ReplicaRoutingDataSource)
+    @Bean
+    public MeterBinder databaseBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            BulkheadDataSource bulkhead = DataSourceUnwrapper.unwrap(dataSource, BulkheadDataSource.class);
+            if (bulkhead != null) {
+                Gauge.builder("taskmanager.db.bulkhead.available", bulkhead, BulkheadDataSource::getAvailablePermits)
+                        .description("Permessi liberi del bulkhead database")
+                        .register(registry);
+                Gauge.builder("taskmanager.db.bulkhead.waiting", bulkhead, BulkheadDataSource::getQueueLength)
+                        .description("Thread in attesa di un permesso")
+                        .register(registry);
+                FunctionCounter.builder("taskmanager.db.bulkhead.rejected", bulkhead, BulkheadDataSource::getRejectedCount)
+                        .description("Accessi rifiutati per attesa oltre il timeout")
+                        .register(registry);
+            }
+        };
+    }
+    
+    private static class BulkheadPostProcessor implements BeanPostProcessor, Ordered {
+        
+        private final int maxConcurrent;
+        private final Duration acquireTimeout;
+        
+        BulkheadPostProcessor(int maxConcurrent, Duration acquireTimeout) {
+            this.maxConcurrent = maxConcurrent;
+            this.acquireTimeout = acquireTimeout;
+        }
+        
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                int permits = maxConcurrent > 0 ? maxConcurrent : hikari.getMaximumPoolSize();
+                log.info("Bulkhead database attivo: {} accessi concorrenti, attesa massima {}", permits, acquireTimeout);
+                return new BulkheadDataSource(hikari, permits, acquireTimeout);
+            }
+            return bean;
+        }
+        
+        @Override
+        public int getOrder() {
+            return BULKHEAD_ORDER;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.taskmanager.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+// Rileva una volta sola il database in uso, per scegliere tra query PostgreSQL e fallback portabili (H2)
+@Component
+public class DatabaseFeatures {
+    
+    private static final Logger log = LoggerFactory.getLogger(DatabaseFeatures.class);
+    
+    private final boolean postgres;
+    
+    public DatabaseFeatures(DataSource dataSource) {
+        this.postgres = "PostgreSQL".equalsIgnoreCase(productName(dataSource));
+    }
+    
+    public boolean isPostgres() {
+        return postgres;
+    }
+    
+    private static String productName(DataSource dataSource) {
+        try {
+            String name = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            log.info("Database rilevato: {}", name);
+            return name;
+        } catch (MetaDataAccessException e) {
+            log.warn("Impossibile rilevare il database, uso le query portabili", e);
+            return "";
+        }
+    }
+}
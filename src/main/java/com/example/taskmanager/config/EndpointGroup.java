@@ -0,0 +1,44 @@
+package com.example.taskmanager.config;
+
+import java.util.Locale;
+
+// Gruppi di endpoint di /api/tasks con un limite di concorrenza ciascuno (vedi ConcurrencyLimitInterceptor).
+// Le ricerche sono le prime a essere scartate quando un gruppo prioritario si avvicina al suo limite
+public enum EndpointGroup {
+    // Letture puntuali e liste (GET diversi da ricerche e statistiche)
+    READS(false),
+    // Ricerche per titolo, avanzate e full-text: scansioni costose
+    SEARCHES(true),
+    // POST, PUT, PATCH, DELETE
+    WRITES(false),
+    // Statistiche (contatori in memoria)
+    STATS(false);
+    
+    private final boolean sheddable;
+    
+    EndpointGroup(boolean sheddable) {
+        this.sheddable = sheddable;
+    }
+    
+    public boolean isSheddable() {
+        return sheddable;
+    }
+    
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+    
+    // Gruppo dalla richiesta: metodo HTTP e pattern dell'endpoint (es. /api/tasks/search/advanced)
+    public static EndpointGroup of(String method, String pattern) {
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return WRITES;
+        }
+        if (pattern.startsWith("/api/tasks/search")) {
+            return SEARCHES;
+        }
+        if (pattern.equals("/api/tasks/stats")) {
+            return STATS;
+        }
+        return READS;
+    }
+}
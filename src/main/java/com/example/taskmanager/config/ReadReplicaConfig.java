@@ -0,0 +1,165 @@
+package com.example.taskmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Repliche in lettura (taskmanager.replica.enabled): il bean dataSource diventa un ReplicaRoutingDataSource
+// che manda le transazioni readOnly alle repliche entro max-lag e tutto il resto al primario
+@Configuration
+@ConditionalOnProperty(name = "taskmanager.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaConfig.class);
+    
+    private final ReplicaRoutingDataSource routing;
+    
+    public ReadReplicaConfig(DataSource dataSource) {
+        this.routing = DataSourceUnwrapper.unwrap(dataSource, ReplicaRoutingDataSource.class);
+    }
+    
+    // Avvolge il dataSource dopo l'eventuale bulkhead (DatabaseBulkheadConfig): se il primario ha un bulkhead
+    // ne riceve uno anche ogni replica, dimensionato sul suo pool e con la stessa attesa massima
+    @Bean
+    static BeanPostProcessor readReplicaPostProcessor(
+            @Value("${taskmanager.replica.urls:}") String urls,
+            @Value("${taskmanager.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${taskmanager.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${taskmanager.replica.driver-class-name:${spring.datasource.driver-class-name:}}") String driverClassName,
+            @Value("${taskmanager.replica.pool-size:10}") int poolSize,
+            @Value("${taskmanager.replica.connection-timeout:2s}") Duration connectionTimeout,
+            @Value("${taskmanager.replica.max-lag:5s}") Duration maxLag,
+            @Value("${taskmanager.replica.lag-query:}") String lagQuery) {
+        List<String> jdbcUrls = Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        if (jdbcUrls.isEmpty()) {
+            throw new IllegalStateException("taskmanager.replica.enabled è true ma taskmanager.replica.urls è vuoto");
+        }
+        return new ReplicaPostProcessor(jdbcUrls, username, password, driverClassName, poolSize,
+                connectionTimeout, maxLag, lagQuery);
+    }
+    
+    // Read-your-writes: dopo una scrittura il client legge dal primario per sticky-after-write
+    @Bean
+    public FilterRegistrationBean<ReplicaStickinessFilter> replicaStickinessFilter(
+            @Value("${taskmanager.replica.sticky-after-write:10s}") Duration stickyAfterWrite) {
+        FilterRegistrationBean<ReplicaStickinessFilter> registration =
+                new FilterRegistrationBean<>(new ReplicaStickinessFilter(stickyAfterWrite));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+    
+    // Ritardo delle repliche; la prima misura avviene subito, fino ad allora le letture vanno al primario
+    @Scheduled(fixedDelayString = "${taskmanager.replica.lag-check-interval:PT1S}")
+    public void checkReplicaLag() {
+        routing.checkLag();
+    }
+    
+    @Bean
+    public MeterBinder readReplicaMetrics() {
+        return registry -> {
+            for (ReplicaRoutingDataSource.Replica replica : routing.getReplicas()) {
+                replica.getPool().setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                Gauge.builder("taskmanager.db.replica.lag", replica, ReplicaRoutingDataSource.Replica::getLagSeconds)
+                        .description("Ritardo misurato della replica in secondi (NaN se non disponibile)")
+                        .baseUnit("seconds")
+                        .tag("replica", replica.getName())
+                        .register(registry);
+            }
+            FunctionCounter.builder("taskmanager.db.reads", routing, ReplicaRoutingDataSource::getReplicaReads)
+                    .description("Transazioni in sola lettura per destinazione")
+                    .tag("target", "replica")
+                    .register(registry);
+            FunctionCounter.builder("taskmanager.db.reads", routing, ReplicaRoutingDataSource::getPrimaryReads)
+                    .description("Transazioni in sola lettura per destinazione")
+                    .tag("target", "primary")
+                    .register(registry);
+        };
+    }
+    
+    @PreDestroy
+    public void closeReplicas() {
+        routing.closeReplicas();
+    }
+    
+    private static class ReplicaPostProcessor implements BeanPostProcessor, Ordered {
+        
+        private final List<String> jdbcUrls;
+        private final String username;
+        private final String password;
+        private final String driverClassName;
+        private final int poolSize;
+        private final Duration connectionTimeout;
+        private final Duration maxLag;
+        private final String lagQuery;
+        
+        ReplicaPostProcessor(List<String> jdbcUrls, String username, String password, String driverClassName,
+                             int poolSize, Duration connectionTimeout, Duration maxLag, String lagQuery) {
+            this.jdbcUrls = jdbcUrls;
+            this.username = username;
+            this.password = password;
+            this.driverClassName = driverClassName;
+            this.poolSize = poolSize;
+            this.connectionTimeout = connectionTimeout;
+            this.maxLag = maxLag;
+            this.lagQuery = lagQuery;
+        }
+        
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary)
+                    || bean instanceof ReplicaRoutingDataSource) {
+                return bean;
+            }
+            BulkheadDataSource bulkhead = DataSourceUnwrapper.unwrap(primary, BulkheadDataSource.class);
+            List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+            for (int i = 0; i < jdbcUrls.size(); i++) {
+                HikariDataSource pool = new HikariDataSource();
+                pool.setPoolName("replica-" + (i + 1));
+                pool.setJdbcUrl(jdbcUrls.get(i));
+                pool.setUsername(username);
+                pool.setPassword(password);
+                if (!driverClassName.isBlank()) {
+                    pool.setDriverClassName(driverClassName);
+                }
+                pool.setMaximumPoolSize(poolSize);
+                pool.setConnectionTimeout(connectionTimeout.toMillis());
+                pool.setReadOnly(true);
+                DataSource target = bulkhead != null
+                        ? new BulkheadDataSource(pool, poolSize, bulkhead.getAcquireTimeout())
+                        : pool;
+                replicas.add(new ReplicaRoutingDataSource.Replica(pool, target, lagQuery));
+            }
+            log.info("Repliche in lettura: {} (ritardo massimo {})", jdbcUrls.size(), maxLag);
+            return new ReplicaRoutingDataSource(primary, replicas, maxLag);
+        }
+        
+        // Dopo il bulkhead, che deve vedere il pool Hikari del primario
+        @Override
+        public int getOrder() {
+            return DatabaseBulkheadConfig.BULKHEAD_ORDER + 1;
+        }
+    }
+}
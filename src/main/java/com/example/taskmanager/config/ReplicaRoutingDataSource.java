@@ -0,0 +1,235 @@
+package com.example.taskmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// DataSource con repliche in lettura: le transazioni readOnly (@Transactional(readOnly = true) e le letture
+// dei repository fuori da una transazione) usano una replica, tutte le altre il primario. La connessione
+// reale è presa alla prima query (LazyConnectionDataSourceProxy), quando il flag readOnly è già impostato.
+// Una replica riceve letture solo se il ritardo misurato da checkLag è entro maxLag; se nessuna lo è,
+// o se il thread è vincolato al primario (vedi primary), la lettura va al primario.
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    
+    // Ritardo di una replica PostgreSQL in secondi; 0 se ha applicato tutto il WAL ricevuto
+    // (su un primario inattivo pg_last_xact_replay_timestamp resta fermo anche senza ritardo).
+    // "Tutto il WAL ricevuto" vale solo con il WAL receiver collegato al primario: senza, la replica applica
+    // quello che ha e sembra allineata mentre il primario va avanti, per cui il ritardo è NULL (sconosciuto).
+    // Lo status del receiver è visibile solo con pg_read_all_stats: senza quel ruolo basta che il processo esista
+    static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver " +
+            "WHERE coalesce(status, 'streaming') = 'streaming') THEN NULL " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+    
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+    
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, Duration maxLag) {
+        super(primary);
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLag.toMillis();
+        setReadOnlyDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return readConnection();
+            }
+            
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return readConnection();
+            }
+        });
+    }
+    
+    // Esegue reads sul primario anche se in una transazione readOnly: per le letture che riempiono
+    // cache condivise (invalidate dalle scritture, non devono ricaricare dati precedenti) e per
+    // read-your-writes. Vale per le connessioni prese dentro reads, non per una transazione già avviata
+    public static <T> T primary(Supplier<T> reads) {
+        boolean pinned = pinPrimary();
+        try {
+            return reads.get();
+        } finally {
+            unpinPrimary(pinned);
+        }
+    }
+    
+    // Vincola il thread al primario; restituisce false se lo era già (unpinPrimary non lo sbloccherà)
+    static boolean pinPrimary() {
+        if (PRIMARY_ONLY.get() != null) {
+            return false;
+        }
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        return true;
+    }
+    
+    static void unpinPrimary(boolean pinned) {
+        if (pinned) {
+            PRIMARY_ONLY.remove();
+        }
+    }
+    
+    // Misura il ritardo di ogni replica (chiamato periodicamente da ReadReplicaConfig)
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            replica.checkLag();
+        }
+    }
+    
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+    
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+    
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+    
+    // Chiude i pool delle repliche (il primario resta del bean dataSource, che lo chiude da sé)
+    public void closeReplicas() {
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+    
+    private Connection readConnection() throws SQLException {
+        if (PRIMARY_ONLY.get() == null) {
+            Replica replica = pick();
+            if (replica != null) {
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replicaReads.increment();
+                    return connection;
+                } catch (SQLTransientConnectionException e) {
+                    // Pool o bulkhead della replica pieni: la lettura passa al primario (protetto dal suo
+                    // bulkhead) ma la replica resta utilizzabile
+                    log.debug("Replica {} satura, lettura sul primario", replica.name);
+                } catch (SQLException e) {
+                    replica.markUnavailable(e);
+                }
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+    
+    // Round robin tra le repliche entro il ritardo tollerato
+    private Replica pick() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isWithin(maxLagMillis)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+    
+    // Pool di una replica con l'ultimo ritardo misurato (-1 = non ancora misurato o non raggiungibile)
+    public static class Replica {
+        
+        private final String name;
+        private final HikariDataSource pool;
+        private final DataSource dataSource;
+        private final String lagQuery;
+        private volatile long lagMillis = -1;
+        
+        // dataSource è il pool stesso o il pool dietro al bulkhead; lagQuery vuota = rilevata dal database
+        public Replica(HikariDataSource pool, DataSource dataSource, String lagQuery) {
+            this.name = pool.getPoolName();
+            this.pool = pool;
+            this.dataSource = dataSource;
+            this.lagQuery = lagQuery;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public HikariDataSource getPool() {
+            return pool;
+        }
+        
+        // Ritardo in secondi, NaN se la replica non è utilizzabile
+        public double getLagSeconds() {
+            long lag = lagMillis;
+            return lag < 0 ? Double.NaN : lag / 1000.0;
+        }
+        
+        boolean isWithin(long maxLagMillis) {
+            long lag = lagMillis;
+            return lag >= 0 && lag <= maxLagMillis;
+        }
+        
+        void checkLag() {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                String query = lagQuery(connection);
+                long lag = 0;
+                if (query != null) {
+                    // NULL (es. replica che non ha ancora applicato transazioni) = ritardo sconosciuto
+                    try (ResultSet rs = statement.executeQuery(query)) {
+                        lag = -1;
+                        if (rs.next()) {
+                            double seconds = rs.getDouble(1);
+                            lag = rs.wasNull() ? -1 : Math.round(seconds * 1000);
+                        }
+                    }
+                }
+                if (lagMillis < 0 && lag >= 0) {
+                    log.info("Replica {} raggiungibile, ritardo {} ms", name, lag);
+                } else if (lagMillis >= 0 && lag < 0) {
+                    log.warn("Replica {} con ritardo sconosciuto (non riceve il WAL dal primario?), letture sul primario",
+                            name);
+                }
+                lagMillis = lag;
+            } catch (SQLException e) {
+                markUnavailable(e);
+            }
+        }
+        
+        void markUnavailable(SQLException e) {
+            if (lagMillis >= 0) {
+                log.warn("Replica {} non disponibile, letture sul primario: {}", name, e.getMessage());
+            }
+            lagMillis = -1;
+        }
+        
+        // Senza query configurata il ritardo si misura solo su PostgreSQL; altrove (es. H2 in locale)
+        // la replica è considerata allineata
+        private String lagQuery(Connection connection) throws SQLException {
+            if (!lagQuery.isBlank()) {
+                return lagQuery;
+            }
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())
+                    ? POSTGRES_LAG_QUERY : null;
+        }
+    }
+}
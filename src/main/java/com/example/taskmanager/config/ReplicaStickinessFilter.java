@@ -0,0 +1,65 @@
+package com.example.taskmanager.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+// Read-your-writes con le repliche: una richiesta che scrive (metodo diverso da GET/HEAD/OPTIONS)
+// riceve un cookie che per stickyAfterWrite vincola al primario tutte le letture di quel client,
+// anche se servite da un'altra istanza. La richiesta che scrive legge dal primario fino alla fine.
+public class ReplicaStickinessFilter extends OncePerRequestFilter {
+    
+    static final String COOKIE_NAME = "taskmanager-primary";
+    
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    
+    private final int stickySeconds;
+    
+    public ReplicaStickinessFilter(Duration stickyAfterWrite) {
+        this.stickySeconds = (int) Math.max(1, stickyAfterWrite.toSeconds());
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write) {
+            // Impostato prima della risposta, che potrebbe essere già inviata alla fine della catena
+            Cookie cookie = new Cookie(COOKIE_NAME, "1");
+            cookie.setPath("/");
+            cookie.setMaxAge(stickySeconds);
+            cookie.setHttpOnly(true);
+            cookie.setAttribute("SameSite", "Lax");
+            response.addCookie(cookie);
+        }
+        if (!write && !hasCookie(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean pinned = ReplicaRoutingDataSource.pinPrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unpinPrimary(pinned);
+        }
+    }
+    
+    private static boolean hasCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE_NAME.equals(cookie.getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
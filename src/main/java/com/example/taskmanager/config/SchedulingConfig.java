@@ -0,0 +1,10 @@
+package com.example.taskmanager.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Abilita i job periodici (es. riconciliazione delle statistiche)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
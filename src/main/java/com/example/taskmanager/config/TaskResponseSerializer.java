@@ -0,0 +1,205 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Serializzazione di TaskResponse senza introspezione: nomi dei campi e valori degli enum già codificati,
+// date scritte cifra per cifra in un buffer riusato (stesso formato ISO del serializer standard di Jackson).
+// I campi formatted* (dd/MM/yyyy HH:mm, usati dalle pagine Mustache) vanno in output solo con ?formatted=true.
+// Essendo un @JsonComponent vale per tutti i mapper di Spring Boot: JSON, Smile, CBOR, export ed eventi SSE
+@JsonComponent
+public class TaskResponseSerializer extends StdSerializer<TaskResponse> {
+    
+    public static final String FORMATTED_PARAMETER = "formatted";
+    
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString PRIORITY = new SerializedString("priority");
+    private static final SerializedString DUE_DATE = new SerializedString("dueDate");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializedString VERSION = new SerializedString("version");
+    private static final SerializedString FORMATTED_DUE_DATE = new SerializedString("formattedDueDate");
+    private static final SerializedString FORMATTED_CREATED_AT = new SerializedString("formattedCreatedAt");
+    private static final SerializedString FORMATTED_UPDATED_AT = new SerializedString("formattedUpdatedAt");
+    
+    private static final Map<TaskStatus, SerializableString> STATUS_VALUES = encode(TaskStatus.class);
+    private static final Map<TaskPriority, SerializableString> PRIORITY_VALUES = encode(TaskPriority.class);
+    
+    // Attributo per chiamata: la richiesta viene letta una sola volta anche per una lista di task
+    private static final Object FORMATTED_ATTRIBUTE = new Object();
+    
+    // "+999999999-12-31T23:59:59.999999999" è la data più lunga
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[40]);
+    private static final DateTimeFormatter DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    
+    public TaskResponseSerializer() {
+        super(TaskResponse.class);
+    }
+    
+    @Override
+    public void serialize(TaskResponse task, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(task);
+        generator.writeFieldName(ID);
+        writeNumber(generator, task.getId());
+        generator.writeFieldName(TITLE);
+        writeString(generator, task.getTitle());
+        generator.writeFieldName(DESCRIPTION);
+        writeString(generator, task.getDescription());
+        generator.writeFieldName(STATUS);
+        writeEnum(generator, STATUS_VALUES, task.getStatus());
+        generator.writeFieldName(PRIORITY);
+        writeEnum(generator, PRIORITY_VALUES, task.getPriority());
+        generator.writeFieldName(DUE_DATE);
+        writeIsoDateTime(generator, task.getDueDate());
+        generator.writeFieldName(CREATED_AT);
+        writeIsoDateTime(generator, task.getCreatedAt());
+        generator.writeFieldName(UPDATED_AT);
+        writeIsoDateTime(generator, task.getUpdatedAt());
+        generator.writeFieldName(VERSION);
+        writeNumber(generator, task.getVersion());
+        
+        if (formattedRequested(provider)) {
+            generator.writeFieldName(FORMATTED_DUE_DATE);
+            writeDisplayDateTime(generator, task.getDueDate());
+            generator.writeFieldName(FORMATTED_CREATED_AT);
+            writeDisplayDateTime(generator, task.getCreatedAt());
+            generator.writeFieldName(FORMATTED_UPDATED_AT);
+            writeDisplayDateTime(generator, task.getUpdatedAt());
+        }
+        generator.writeEndObject();
+    }
+    
+    private static boolean formattedRequested(SerializerProvider provider) {
+        Object cached = provider.getAttribute(FORMATTED_ATTRIBUTE);
+        if (cached == null) {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            cached = attributes instanceof ServletRequestAttributes servletAttributes
+                    && Boolean.parseBoolean(servletAttributes.getRequest().getParameter(FORMATTED_PARAMETER));
+            provider.setAttribute(FORMATTED_ATTRIBUTE, cached);
+        }
+        return (Boolean) cached;
+    }
+    
+    private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+    
+    private static void writeString(JsonGenerator generator, String value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+    
+    private static <E extends Enum<E>> void writeEnum(JsonGenerator generator, Map<E, SerializableString> values,
+                                                      E value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(values.get(value));
+        }
+    }
+    
+    // Come DateTimeFormatter.ISO_LOCAL_DATE_TIME: secondi sempre presenti, frazione senza zeri finali
+    static void writeIsoDateTime(JsonGenerator generator, LocalDateTime value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            generator.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        int length = 0;
+        length = digits(buffer, length, year, 4);
+        buffer[length++] = '-';
+        length = digits(buffer, length, value.getMonthValue(), 2);
+        buffer[length++] = '-';
+        length = digits(buffer, length, value.getDayOfMonth(), 2);
+        buffer[length++] = 'T';
+        length = digits(buffer, length, value.getHour(), 2);
+        buffer[length++] = ':';
+        length = digits(buffer, length, value.getMinute(), 2);
+        buffer[length++] = ':';
+        length = digits(buffer, length, value.getSecond(), 2);
+        int nano = value.getNano();
+        if (nano > 0) {
+            int fractionDigits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                fractionDigits--;
+            }
+            buffer[length++] = '.';
+            length = digits(buffer, length, nano, fractionDigits);
+        }
+        generator.writeString(buffer, 0, length);
+    }
+    
+    // Come DISPLAY_FORMATTER (dd/MM/yyyy HH:mm), il formato dei getter formatted* di TaskResponse
+    static void writeDisplayDateTime(JsonGenerator generator, LocalDateTime value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            generator.writeString(value.format(DISPLAY_FORMATTER));
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        int length = 0;
+        length = digits(buffer, length, value.getDayOfMonth(), 2);
+        buffer[length++] = '/';
+        length = digits(buffer, length, value.getMonthValue(), 2);
+        buffer[length++] = '/';
+        length = digits(buffer, length, year, 4);
+        buffer[length++] = ' ';
+        length = digits(buffer, length, value.getHour(), 2);
+        buffer[length++] = ':';
+        length = digits(buffer, length, value.getMinute(), 2);
+        generator.writeString(buffer, 0, length);
+    }
+    
+    // Scrive value con esattamente width cifre (zeri a sinistra) e restituisce la nuova lunghezza
+    private static int digits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + width;
+    }
+    
+    private static <E extends Enum<E>> Map<E, SerializableString> encode(Class<E> type) {
+        Map<E, SerializableString> values = new EnumMap<>(type);
+        for (E constant : type.getEnumConstants()) {
+            values.put(constant, new SerializedString(constant.name()));
+        }
+        return values;
+    }
+}
@@ -5,6 +5,23 @@ public final class TaskConstants {
     // Paginazione
     public static final int DEFAULT_PAGE = 0;
     public static final int DEFAULT_SIZE = 10;
+    public static final int MAX_CURSOR_PAGE_SIZE = 100;
+    
+    // Autocompletamento
+    public static final int DEFAULT_SUGGEST_LIMIT = 10;
+    public static final int MAX_SUGGEST_LIMIT = 50;
+    
+    // Export in streaming (valore stringa perché usato in @QueryHint)
+    public static final String EXPORT_FETCH_SIZE = "500";
+    
+    // Generazione id e operazioni bulk (deve coincidere con INCREMENT BY di tasks_id_seq)
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
+    // Cache delle task per id (deve comparire in spring.cache.cache-names)
+    public static final String TASK_CACHE = "tasks";
+    
+    // Timer dei metodi di TaskService (percentili in management.metrics.distribution)
+    public static final String SERVICE_TIMER = "taskmanager.service";
     
     // Ordinamento
     public static final String DEFAULT_SORT_BY = "createdAt";
@@ -32,6 +49,11 @@ public final class TaskConstants {
     public static final String TASK_UPDATE_ERROR = "Errore nell'aggiornamento della task: ";
     public static final String TASK_DELETE_ERROR = "Errore nell'eliminazione della task: ";
     public static final String STATUS_UPDATE_ERROR = "Errore nell'aggiornamento dello status: ";
+    public static final String INVALID_CURSOR_MESSAGE = "Cursore di paginazione non valido";
+    public static final String INGEST_QUEUE_FULL_MESSAGE = "Coda di inserimento piena, riprova tra poco";
+    public static final String INGEST_TICKET_NOT_FOUND = "Ticket non trovato o scaduto";
+    public static final String CONCURRENCY_LIMIT_MESSAGE = "Troppe richieste in corso, riprova tra poco";
+    public static final String SEARCH_SHED_MESSAGE = "Servizio sotto carico: ricerche temporaneamente sospese, riprova tra poco";
     
     // Costruttore privato per evitare istanziazione
     private TaskConstants() {
@@ -0,0 +1,84 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.config.ReplicaRoutingDataSource;
+import com.example.taskmanager.service.TaskDataVersion;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Cache dell'HTML renderizzato per le pagine di sola lettura (dashboard e risultati di ricerca).
+// La chiave comprende i parametri della pagina e la versione dei dati: dopo una scrittura le pagine
+// precedenti non sono più raggiungibili ed escono per dimensione o TTL. Il TTL limita anche lo stale
+// dovuto a scritture fatte da altre istanze o al riallineamento periodico delle statistiche.
+@Component
+public class RenderedPageCache {
+    
+    private static final MediaType TEXT_HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+    
+    private final Mustache.Compiler compiler;
+    private final TaskDataVersion dataVersion;
+    private final boolean enabled;
+    private final Cache<String, byte[]> pages;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+    
+    public RenderedPageCache(Mustache.Compiler compiler, TaskDataVersion dataVersion, MeterRegistry meterRegistry,
+                             @Value("${taskmanager.page-cache.enabled:true}") boolean enabled,
+                             @Value("${taskmanager.page-cache.max-bytes:33554432}") long maxBytes,
+                             @Value("${taskmanager.page-cache.ttl:5m}") Duration ttl) {
+        this.compiler = compiler;
+        this.dataVersion = dataVersion;
+        this.enabled = enabled;
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, byte[] html) -> html.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "pages");
+    }
+    
+    // Pagina dalla cache; in caso di miss il model viene caricato e renderizzato una volta e poi salvato.
+    // La versione è letta prima del caricamento (vedi TaskDataVersion) e il model dal primario: da una replica
+    // in ritardo la pagina salvata con la versione corrente conterrebbe dati precedenti
+    public ResponseEntity<byte[]> page(String template, String params, Supplier<Map<String, Object>> modelLoader) {
+        if (!enabled) {
+            return render(template, modelLoader.get());
+        }
+        String key = template + "|" + params + "|" + dataVersion.current();
+        byte[] html = pages.getIfPresent(key);
+        if (html == null) {
+            html = toHtml(template, ReplicaRoutingDataSource.primary(modelLoader));
+            pages.put(key, html);
+        }
+        return ok(html);
+    }
+    
+    // Render senza cache, per le pagine legate alla singola richiesta (es. con messaggi flash)
+    public ResponseEntity<byte[]> render(String template, Map<String, Object> model) {
+        return ok(toHtml(template, model));
+    }
+    
+    private byte[] toHtml(String template, Map<String, Object> model) {
+        Template compiled = enabled
+                ? templates.computeIfAbsent(template, compiler::loadTemplate)
+                : compiler.loadTemplate(template);
+        return compiled.execute(model).getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static ResponseEntity<byte[]> ok(byte[] html) {
+        return ResponseEntity.ok().contentType(TEXT_HTML_UTF8).body(html);
+    }
+}
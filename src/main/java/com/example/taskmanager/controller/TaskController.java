@@ -1,30 +1,65 @@
 package com.example.taskmanager.controller;
 
+import com.example.taskmanager.dto.TaskBatchResult;
+import com.example.taskmanager.dto.TaskBatchUpdateItem;
+import com.example.taskmanager.dto.TaskCursorPage;
+import com.example.taskmanager.dto.TaskFingerprint;
 import com.example.taskmanager.dto.TaskRequest;
 import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.dto.TaskSuggestion;
+import com.example.taskmanager.dto.TotalCount;
 import com.example.taskmanager.entity.TaskPriority;
 import com.example.taskmanager.entity.TaskStatus;
+import com.example.taskmanager.service.TaskBatchService;
+import com.example.taskmanager.service.TaskExportService;
 import com.example.taskmanager.service.TaskService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/tasks")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED})
 public class TaskController {
     
+    // Rappresentazioni binarie con un ETag proprio (suffisso); il JSON, scelto per Accept assente o */*, non ne ha
+    private static final Map<MediaType, String> REPRESENTATIONS = Map.of(
+            MediaType.parseMediaType("application/x-jackson-smile"), "smile",
+            MediaType.parseMediaType("application/cbor"), "cbor");
+    
     private final TaskService taskService;
+    private final TaskExportService taskExportService;
+    private final TaskBatchService taskBatchService;
+    private final TaskEventStream taskEventStream;
+    private final ContentNegotiationManager contentNegotiationManager;
     
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskExportService taskExportService,
+                          TaskBatchService taskBatchService, TaskEventStream taskEventStream,
+                          ContentNegotiationManager contentNegotiationManager) {
         this.taskService = taskService;
+        this.taskExportService = taskExportService;
+        this.taskBatchService = taskBatchService;
+        this.taskEventStream = taskEventStream;
+        this.contentNegotiationManager = contentNegotiationManager;
     }
     
     // Crea una nuova task
@@ -34,34 +69,97 @@ public class TaskController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdTask);
     }
     
-    // Ottieni tutte le task con paginazione
+    // Crea più task in un'unica chiamata, con esito per elemento
+    @PostMapping("/batch")
+    public ResponseEntity<TaskBatchResult> createTasks(@RequestBody List<TaskRequest> taskRequests) {
+        TaskBatchResult result = taskBatchService.createTasks(taskRequests);
+        return ResponseEntity.ok(result);
+    }
+    
+    // Aggiorna più task in un'unica chiamata, con esito per elemento
+    @PutMapping("/batch")
+    public ResponseEntity<TaskBatchResult> updateTasks(@RequestBody List<TaskBatchUpdateItem> items) {
+        TaskBatchResult result = taskBatchService.updateTasks(items);
+        return ResponseEntity.ok(result);
+    }
+    
+    // Elimina più task in un'unica chiamata (body: lista di id), con esito per elemento
+    @PostMapping("/batch/delete")
+    public ResponseEntity<TaskBatchResult> deleteTasks(@RequestBody List<Long> ids) {
+        TaskBatchResult result = taskBatchService.deleteTasks(ids);
+        return ResponseEntity.ok(result);
+    }
+    
+    // Ottieni tutte le task con paginazione (includeArchived=true comprende quelle in archivio).
+    // total=APPROXIMATE usa un totale stimato, total=NONE restituisce una Slice senza totale
     @GetMapping
-    public ResponseEntity<Page<TaskResponse>> getAllTasks(
+    public ResponseEntity<Slice<TaskResponse>> getAllTasks(
             @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_PAGE}") int page,
             @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SIZE}") int size,
             @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SORT_BY}") String sortBy,
-            @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SORT_DIR}") String sortDir) {
+            @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SORT_DIR}") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(defaultValue = "EXACT") TotalCount total,
+            WebRequest request) {
         
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<TaskResponse> tasks = taskService.getAllTasks(pageable);
-        return ResponseEntity.ok(tasks);
+        return conditionalList(request, () -> taskService.getAllTasks(pageable, includeArchived, total));
+    }
+    
+    // Ottieni le task con paginazione a cursore (attiva quando è presente il parametro cursor,
+    // anche vuoto per la prima pagina)
+    @GetMapping(params = "cursor")
+    public ResponseEntity<TaskCursorPage> getTasksByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SIZE}") int size,
+            WebRequest request) {
+        return conditionalList(request, () -> taskService.getTasksAfterCursor(cursor, size));
     }
     
     // Ottieni tutte le task senza paginazione
     @GetMapping("/all")
-    public ResponseEntity<List<TaskResponse>> getAllTasksSimple() {
-        List<TaskResponse> tasks = taskService.getAllTasks();
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<List<TaskResponse>> getAllTasksSimple(WebRequest request) {
+        return conditionalList(request, taskService::getAllTasks);
     }
     
-    // Ottieni task per ID
+    // Export in streaming di tutte le task (format=ndjson|csv) a memoria costante
+    @GetMapping(value = "/all", params = "format")
+    public ResponseEntity<StreamingResponseBody> exportAllTasks(@RequestParam String format) {
+        TaskExportService.ExportFormat exportFormat = TaskExportService.ExportFormat.fromParameter(format);
+        StreamingResponseBody body = out -> taskExportService.export(exportFormat, out);
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()));
+        if (exportFormat == TaskExportService.ExportFormat.CSV) {
+            response.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks.csv\"");
+        }
+        return response.body(body);
+    }
+    
+    // Ottieni task per ID; con If-None-Match/If-Modified-Since risponde 304 confrontando solo version e updated_at.
+    // Con includeArchived=true la cerca anche in archivio (il 304 lo calcola la risposta dalla task letta)
     @GetMapping("/{id}")
-    public ResponseEntity<TaskResponse> getTaskById(@PathVariable Long id) {
-        TaskResponse task = taskService.getTaskById(id);
-        return ResponseEntity.ok(task);
+    public ResponseEntity<TaskResponse> getTaskById(@PathVariable Long id,
+                                                    @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                    WebRequest request) {
+        String representation = representation(request);
+        if (!includeArchived && isConditional(request)) {
+            TaskFingerprint fingerprint = taskService.getTaskFingerprint(id).forRepresentation(representation);
+            if (request.checkNotModified(fingerprint.getEtag(), fingerprint.getLastModified())) {
+                return notModified();
+            }
+        }
+        TaskResponse task = includeArchived ? taskService.getTaskByIdIncludingArchived(id) : taskService.getTaskById(id);
+        TaskFingerprint fingerprint = TaskFingerprint.of(task).forRepresentation(representation);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(fingerprint.getEtag())
+                .lastModified(fingerprint.getLastModified())
+                .body(task);
     }
     
     // Aggiorna una task esistente
@@ -79,18 +177,18 @@ public class TaskController {
         return ResponseEntity.noContent().build();
     }
     
-    // Ottieni task per status
+    // Ottieni task per status (includeArchived=true comprende quelle in archivio)
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<TaskResponse>> getTasksByStatus(@PathVariable TaskStatus status) {
-        List<TaskResponse> tasks = taskService.getTasksByStatus(status);
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<List<TaskResponse>> getTasksByStatus(@PathVariable TaskStatus status,
+                                                               @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                               WebRequest request) {
+        return conditionalList(request, () -> taskService.getTasksByStatus(status, includeArchived));
     }
     
     // Ottieni task per priority
     @GetMapping("/priority/{priority}")
-    public ResponseEntity<List<TaskResponse>> getTasksByPriority(@PathVariable TaskPriority priority) {
-        List<TaskResponse> tasks = taskService.getTasksByPriority(priority);
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<List<TaskResponse>> getTasksByPriority(@PathVariable TaskPriority priority, WebRequest request) {
+        return conditionalList(request, () -> taskService.getTasksByPriority(priority));
     }
     
     // Ottieni task scadute
@@ -100,30 +198,52 @@ public class TaskController {
         return ResponseEntity.ok(tasks);
     }
     
-    // Cerca task per titolo
+    // Cerca task per titolo (includeArchived=true comprende quelle in archivio)
     @GetMapping("/search")
-    public ResponseEntity<List<TaskResponse>> searchTasksByTitle(@RequestParam String title) {
-        List<TaskResponse> tasks = taskService.searchTasksByTitle(title);
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<List<TaskResponse>> searchTasksByTitle(@RequestParam String title,
+                                                                 @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                                 WebRequest request) {
+        return conditionalList(request, () -> taskService.searchTasksByTitle(title, includeArchived));
     }
     
-    // Cerca task con filtri avanzati
+    // Suggerimenti per l'autocompletamento del titolo (prefisso del titolo o di una sua parola)
+    @GetMapping("/suggest")
+    public ResponseEntity<List<TaskSuggestion>> suggestTasks(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SUGGEST_LIMIT}") int limit) {
+        List<TaskSuggestion> suggestions = taskService.suggestTasks(q, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+    
+    // Cerca task con filtri avanzati (total come per la lista paginata)
     @GetMapping("/search/advanced")
-    public ResponseEntity<Page<TaskResponse>> searchTasksWithFilters(
+    public ResponseEntity<Slice<TaskResponse>> searchTasksWithFilters(
             @RequestParam(required = false) String title,
             @RequestParam(required = false) TaskStatus status,
             @RequestParam(required = false) TaskPriority priority,
             @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_PAGE}") int page,
             @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SIZE}") int size,
             @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SORT_BY}") String sortBy,
-            @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SORT_DIR}") String sortDir) {
+            @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SORT_DIR}") String sortDir,
+            @RequestParam(defaultValue = "EXACT") TotalCount total,
+            WebRequest request) {
         
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<TaskResponse> tasks = taskService.searchTasksWithFilters(title, status, priority, pageable);
-        return ResponseEntity.ok(tasks);
+        return conditionalList(request, () -> taskService.searchTasksWithFilters(title, status, priority, pageable, total));
+    }
+    
+    // Ricerca full-text su titolo e descrizione, ordinata per rilevanza
+    @GetMapping("/search/fulltext")
+    public ResponseEntity<Page<TaskResponse>> searchTasksFullText(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_PAGE}") int page,
+            @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SIZE}") int size,
+            WebRequest request) {
+        
+        return conditionalList(request, () -> taskService.searchTasksFullText(q, PageRequest.of(page, size)));
     }
     
     // Aggiorna solo lo status di una task
@@ -140,4 +260,68 @@ public class TaskController {
         TaskService.TaskStats stats = taskService.getTaskStats();
         return ResponseEntity.ok(stats);
     }
+    
+    // Flusso SSE delle modifiche (eventi "task" e "stats"); Last-Event-ID riprende dall'ultimo evento ricevuto.
+    // Il 503 non ha corpo: un corpo JSON non è negoziabile con Accept: text/event-stream
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = taskEventStream.subscribe(lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
+    // GET condizionale su una lista: l'impronta (max updated_at, totale e versione dei dati in memoria, nessun COUNT)
+    // si legge prima della query, così l'ETag restituito non è mai più recente dei dati nel body
+    private <T> ResponseEntity<T> conditionalList(WebRequest request, Supplier<T> query) {
+        TaskFingerprint fingerprint = taskService.getTaskSetFingerprint().forRepresentation(representation(request));
+        if (request.checkNotModified(fingerprint.getEtag())) {
+            return notModified();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(fingerprint.getEtag())
+                .body(query.get());
+    }
+    
+    // Rappresentazione che la negoziazione sceglierà per il corpo (null = JSON): il primo tipo accettato,
+    // in ordine di specificità e qualità, compatibile con Smile, CBOR o JSON
+    private String representation(WebRequest request) {
+        List<MediaType> accepted;
+        try {
+            accepted = contentNegotiationManager.resolveMediaTypes((NativeWebRequest) request);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return null;
+        }
+        for (MediaType mediaType : accepted) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            for (Map.Entry<MediaType, String> representation : REPRESENTATIONS.entrySet()) {
+                if (mediaType.isCompatibleWith(representation.getKey())) {
+                    return representation.getValue();
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+    
+    // ETag e Last-Modified del 304 sono già scritti da checkNotModified. Vary: Accept perché alla stessa URL
+    // corrispondono JSON, Smile e CBOR (ognuno con il suo ETag, vedi representation)
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
 }
@@ -0,0 +1,296 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.event.TaskChangedEvent;
+import com.example.taskmanager.service.TaskService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Flusso Server-Sent Events delle modifiche alle task (GET /api/tasks/events).
+// Gli eventi arrivano da TaskService dopo il commit e vengono accorpati per task in una finestra breve:
+// una raffica di scritture sulla stessa task diventa un solo evento, seguito dalle statistiche aggiornate.
+// Ogni client ha un buffer limitato svuotato da un virtual thread dedicato: se si riempie il client è lento
+// e viene disconnesso, poi riprende da Last-Event-ID grazie allo storico degli ultimi eventi.
+@Component
+public class TaskEventStream {
+    
+    private static final Logger log = LoggerFactory.getLogger(TaskEventStream.class);
+    
+    private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int replaySize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter droppedSubscribers;
+    
+    // Modifiche in attesa della prossima finestra, una per task (in ordine di arrivo)
+    private final Map<Long, TaskChangedEvent> pending = new LinkedHashMap<>();
+    // Ultimi eventi inviati, per la ripresa con Last-Event-ID
+    private final Deque<Frame> history = new ArrayDeque<>();
+    // Gli id partono dall'orologio: dopo un riavvio restano più grandi di quelli già visti dai client
+    private long lastEventId = System.currentTimeMillis() * 1000;
+    
+    public TaskEventStream(TaskService taskService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           @Value("${taskmanager.events.buffer-size:256}") int bufferSize,
+                           @Value("${taskmanager.events.replay-size:1000}") int replaySize,
+                           @Value("${taskmanager.events.max-subscribers:1000}") int maxSubscribers,
+                           @Value("${taskmanager.events.timeout:30m}") Duration timeout) {
+        this.taskService = taskService;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("taskmanager.events.subscribers", subscribers, Set::size)
+                .description("Client collegati al flusso eventi")
+                .register(meterRegistry);
+        this.droppedSubscribers = Counter.builder("taskmanager.events.dropped")
+                .description("Client disconnessi perché troppo lenti")
+                .register(meterRegistry);
+    }
+    
+    // Nuovo client: statistiche correnti, poi gli eventi persi dopo lastSeenId (o "reset" se non sono più nello storico).
+    // Restituisce null se è già collegato il numero massimo di client
+    public SseEmitter subscribe(Long lastSeenId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        
+        synchronized (this) {
+            subscriber.offer(statsFrame());
+            if (lastSeenId != null) {
+                replay(subscriber, lastSeenId);
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+    
+    @TransactionalEventListener
+    public synchronized void onTaskChanged(TaskChangedEvent event) {
+        pending.merge(event.getTaskId(), event, TaskEventStream::coalesce);
+    }
+    
+    // Chiude la finestra: un evento per task modificata e le statistiche aggiornate
+    @Scheduled(fixedDelayString = "${taskmanager.events.coalesce-window:PT0.2S}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Frame> frames = new ArrayList<>(pending.size() + 1);
+        if (pending.size() >= bufferSize) {
+            // Troppe modifiche per il buffer di un client (es. import bulk): un solo "reset" al posto degli eventi.
+            // Lo storico riparte da qui, così chi riprende da un id precedente riceve anch'esso il reset
+            history.clear();
+            Frame reset = new Frame(++lastEventId, Frame.RESET.name, Frame.RESET.data);
+            remember(reset);
+            frames.add(reset);
+        } else {
+            for (TaskChangedEvent event : pending.values()) {
+                Frame frame = new Frame(++lastEventId, "task", toJson(event));
+                remember(frame);
+                frames.add(frame);
+            }
+        }
+        pending.clear();
+        frames.add(statsFrame());
+        
+        for (Subscriber subscriber : subscribers) {
+            for (Frame frame : frames) {
+                subscriber.offer(frame);
+            }
+        }
+    }
+    
+    // Commento SSE periodico: tiene aperta la connessione attraverso i proxy e scopre i client spariti
+    @Scheduled(fixedDelayString = "${taskmanager.events.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(Frame.HEARTBEAT);
+        }
+    }
+    
+    // Allo shutdown chiude i flussi prima del graceful shutdown di Tomcat, che altrimenti li aspetterebbe
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        senders.shutdown();
+    }
+    
+    // Accorpa due modifiche della stessa task nella finestra; null (creata ed eliminata) toglie la task da pending
+    static TaskChangedEvent coalesce(TaskChangedEvent first, TaskChangedEvent next) {
+        boolean created = first.getType() == TaskChangedEvent.Type.CREATED;
+        return switch (next.getType()) {
+            case CREATED -> next;
+            case DELETED -> created ? null : TaskChangedEvent.deleted(next.getTaskId(), first.getPreviousStatus());
+            case ARCHIVED -> created ? null : TaskChangedEvent.archived(next.getTaskId(), first.getPreviousStatus());
+            case UPDATED -> created ? TaskChangedEvent.created(next.getTask())
+                    : TaskChangedEvent.updated(first.getPreviousStatus(), next.getTask());
+            case STATUS_CHANGED -> created ? TaskChangedEvent.created(next.getTask())
+                    : first.getType() == TaskChangedEvent.Type.UPDATED
+                        ? TaskChangedEvent.updated(first.getPreviousStatus(), next.getTask())
+                        : TaskChangedEvent.statusChanged(first.getPreviousStatus(), next.getTask());
+        };
+    }
+    
+    private void replay(Subscriber subscriber, long lastSeenId) {
+        Frame oldest = history.peekFirst();
+        if (!canReplay(lastSeenId, lastEventId, oldest == null ? null : oldest.id)) {
+            subscriber.offer(Frame.RESET);
+            return;
+        }
+        for (Frame frame : history) {
+            if (frame.id > lastSeenId) {
+                subscriber.offer(frame);
+            }
+        }
+    }
+    
+    // Lo storico contiene tutti gli eventi successivi a lastSeenId: gli id sono consecutivi, quindi basta che
+    // il più vecchio sia al massimo lastSeenId + 1 (oldestId null = storico vuoto, completo solo se il client
+    // ha già visto l'ultimo evento). Un id futuro viene da un'altra istanza o da un riavvio all'indietro
+    static boolean canReplay(long lastSeenId, long lastEventId, Long oldestId) {
+        if (lastSeenId > lastEventId) {
+            return false;
+        }
+        return oldestId == null ? lastSeenId == lastEventId : lastSeenId >= oldestId - 1;
+    }
+    
+    private void remember(Frame frame) {
+        history.addLast(frame);
+        if (history.size() > replaySize) {
+            history.removeFirst();
+        }
+    }
+    
+    private Frame statsFrame() {
+        return new Frame(null, "stats", toJson(taskService.getTaskStats()));
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Serializzazione evento fallita", e);
+        }
+    }
+    
+    // Evento già serializzato, condiviso fra tutti i client; senza id non sposta Last-Event-ID
+    private static final class Frame {
+        
+        static final Frame HEARTBEAT = new Frame(null, null, null);
+        // Lo storico non copre più l'ultimo evento visto dal client: deve ricaricare i dati
+        static final Frame RESET = new Frame(null, "reset", "{}");
+        
+        final Long id;
+        final String name;
+        final String data;
+        
+        Frame(Long id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+        
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(data);
+            return id != null ? event.id(String.valueOf(id)) : event;
+        }
+    }
+    
+    private class Subscriber {
+        
+        private final SseEmitter emitter;
+        private final BlockingQueue<Frame> buffer;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean closed;
+        
+        Subscriber(SseEmitter emitter, BlockingQueue<Frame> buffer) {
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+        
+        void offer(Frame frame) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(frame)) {
+                droppedSubscribers.increment();
+                log.debug("Client del flusso eventi troppo lento: disconnesso");
+                close();
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    close();
+                }
+            }
+        }
+        
+        // Un solo invio alla volta per client; ricontrolla il buffer dopo aver rilasciato il flag
+        private void drain() {
+            do {
+                Frame frame;
+                while (!closed && (frame = buffer.poll()) != null) {
+                    try {
+                        emitter.send(frame.toEvent());
+                    } catch (IOException | IllegalStateException e) {
+                        close();
+                    }
+                }
+                sending.set(false);
+            } while (!closed && !buffer.isEmpty() && sending.compareAndSet(false, true));
+        }
+        
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            buffer.clear();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.constants.TaskConstants;
+import com.example.taskmanager.dto.TaskIngestReceipt;
+import com.example.taskmanager.dto.TaskRequest;
+import com.example.taskmanager.exception.TaskNotFoundException;
+import com.example.taskmanager.service.TaskIngestService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+// Inserimento asincrono per client ad alto volume (es. sistemi di alerting): attivo solo con taskmanager.ingest.enabled
+@RestController
+@RequestMapping("/api/tasks/ingest")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.LOCATION)
+@ConditionalOnProperty(prefix = "taskmanager.ingest", name = "enabled", havingValue = "true")
+public class TaskIngestController {
+    
+    private final TaskIngestService taskIngestService;
+    
+    public TaskIngestController(TaskIngestService taskIngestService) {
+        this.taskIngestService = taskIngestService;
+    }
+    
+    // Accoda la task: 202 con il ticket da consultare, 429 se la coda è piena
+    @PostMapping
+    public ResponseEntity<TaskIngestReceipt> ingestTask(@Valid @RequestBody TaskRequest taskRequest) {
+        TaskIngestReceipt receipt = taskIngestService.enqueue(taskRequest);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/tasks/ingest/" + receipt.getTicket()))
+                .body(receipt);
+    }
+    
+    // Stato del ticket: QUEUED finché la task non è salvata, poi CREATED con l'id (o INVALID/FAILED con l'errore)
+    @GetMapping("/{ticket}")
+    public ResponseEntity<TaskIngestReceipt> getReceipt(@PathVariable String ticket) {
+        TaskIngestReceipt receipt = taskIngestService.getReceipt(ticket);
+        if (receipt == null) {
+            throw new TaskNotFoundException(TaskConstants.INGEST_TICKET_NOT_FOUND);
+        }
+        return ResponseEntity.ok(receipt);
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -20,24 +21,36 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Controller
 public class WebController {
     
     private final TaskService taskService;
+    private final RenderedPageCache renderedPageCache;
     
-    public WebController(TaskService taskService) {
+    public WebController(TaskService taskService, RenderedPageCache renderedPageCache) {
         this.taskService = taskService;
+        this.renderedPageCache = renderedPageCache;
     }
     
+    // Dashboard: HTML servito da RenderedPageCache finché i dati non cambiano
     @GetMapping("/")
-    public String index(Model model,
+    public ResponseEntity<byte[]> index(Model model,
                        @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_PAGE}") int page,
                        @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SIZE}") int size,
                        @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SORT_BY}") String sortBy,
                        @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_SORT_DIR}") String sortDir) {
         
+        if (hasFlashMessage(model)) {
+            return renderedPageCache.render("index", indexModel(model, page, size, sortBy, sortDir));
+        }
+        String params = page + ":" + size + ":" + sortBy + ":" + sortDir;
+        return renderedPageCache.page("index", params, () -> indexModel(model, page, size, sortBy, sortDir));
+    }
+    
+    private Map<String, Object> indexModel(Model model, int page, int size, String sortBy, String sortDir) {
         Pageable pageable = PageRequest.of(page, size);
         
         Page<TaskResponse> tasks = taskService.getAllTasks(pageable);
@@ -56,7 +69,7 @@ public class WebController {
         model.addAttribute("first", tasks.isFirst());
         model.addAttribute("last", tasks.isLast());
         
-        return "index";
+        return model.asMap();
     }
     
     @GetMapping("/tasks/new")
@@ -72,8 +85,9 @@ public class WebController {
         return "task-form";
     }
     
+    // Risultati di ricerca: HTML servito da RenderedPageCache finché i dati non cambiano
     @GetMapping("/tasks/search")
-    public String searchTasks(@RequestParam(required = false) String title,
+    public ResponseEntity<byte[]> searchTasks(@RequestParam(required = false) String title,
                             @RequestParam(required = false) TaskStatus status,
                             @RequestParam(required = false) TaskPriority priority,
                             @RequestParam(defaultValue = "#{T(com.example.taskmanager.constants.TaskConstants).DEFAULT_PAGE}") int page,
@@ -83,11 +97,22 @@ public class WebController {
         // Normalizza i parametri vuoti
         String normalizedTitle = (title != null && !title.trim().isEmpty()) ? title.trim() : null;
         
+        if (hasFlashMessage(model)) {
+            return renderedPageCache.render("search-results",
+                    searchModel(model, normalizedTitle, status, priority, page, size));
+        }
+        String params = normalizedTitle + ":" + status + ":" + priority + ":" + page + ":" + size;
+        return renderedPageCache.page("search-results", params,
+                () -> searchModel(model, normalizedTitle, status, priority, page, size));
+    }
+    
+    private Map<String, Object> searchModel(Model model, String normalizedTitle, TaskStatus status,
+                                            TaskPriority priority, int page, int size) {
         // Normalizza anche status e priority se sono stringhe vuote
         TaskStatus normalizedStatus = status;
         TaskPriority normalizedPriority = priority;
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("created_at").descending());
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<TaskResponse> tasks = taskService.searchTasksWithFilters(normalizedTitle, normalizedStatus, normalizedPriority, pageable);
         
         model.addAttribute("tasks", tasks);
@@ -106,7 +131,7 @@ public class WebController {
         model.addAttribute("first", tasks.isFirst());
         model.addAttribute("last", tasks.isLast());
         
-        return "search-results";
+        return model.asMap();
     }
     
     @PostMapping("/tasks")
@@ -232,6 +257,11 @@ public class WebController {
         return "redirect:/tasks/" + id;
     }
     
+    // I messaggi flash (dopo un redirect) rendono la pagina specifica della richiesta: niente cache
+    private static boolean hasFlashMessage(Model model) {
+        return model.containsAttribute("success") || model.containsAttribute("error");
+    }
+    
     // Metodi helper per creare le SelectOption
     private List<SelectOption> createPriorityOptions(TaskPriority selectedPriority) {
         return Arrays.stream(TaskPriority.values())
@@ -0,0 +1,54 @@
+package com.example.taskmanager.dto;
+
+// Esito di un singolo elemento di un'operazione bulk; index è la posizione nella richiesta
+public class TaskBatchItemResult {
+    
+    public enum Outcome {
+        CREATED,
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        INVALID,
+        FAILED
+    }
+    
+    private final int index;
+    private final Long id;
+    private final Outcome outcome;
+    private final String error;
+    
+    public TaskBatchItemResult(int index, Long id, Outcome outcome, String error) {
+        this.index = index;
+        this.id = id;
+        this.outcome = outcome;
+        this.error = error;
+    }
+    
+    public static TaskBatchItemResult success(int index, Long id, Outcome outcome) {
+        return new TaskBatchItemResult(index, id, outcome, null);
+    }
+    
+    public static TaskBatchItemResult failure(int index, Long id, Outcome outcome, String error) {
+        return new TaskBatchItemResult(index, id, outcome, error);
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Outcome getOutcome() {
+        return outcome;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public boolean isSuccess() {
+        return outcome == Outcome.CREATED || outcome == Outcome.UPDATED || outcome == Outcome.DELETED;
+    }
+}
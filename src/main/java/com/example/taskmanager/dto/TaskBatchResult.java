@@ -0,0 +1,35 @@
+package com.example.taskmanager.dto;
+
+import java.util.List;
+
+// Riepilogo di un'operazione bulk con l'esito di ogni elemento, nell'ordine della richiesta
+public class TaskBatchResult {
+    
+    private final int total;
+    private final int succeeded;
+    private final int failed;
+    private final List<TaskBatchItemResult> items;
+    
+    public TaskBatchResult(List<TaskBatchItemResult> items) {
+        this.items = items;
+        this.total = items.size();
+        this.succeeded = (int) items.stream().filter(TaskBatchItemResult::isSuccess).count();
+        this.failed = total - succeeded;
+    }
+    
+    public int getTotal() {
+        return total;
+    }
+    
+    public int getSucceeded() {
+        return succeeded;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public List<TaskBatchItemResult> getItems() {
+        return items;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.taskmanager.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+// Elemento di un aggiornamento bulk: i campi di TaskRequest più l'id della task da modificare
+public class TaskBatchUpdateItem extends TaskRequest {
+    
+    @NotNull(message = "L'id della task è obbligatorio")
+    private Long id;
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.taskmanager.dto;
+
+import com.example.taskmanager.constants.TaskConstants;
+import com.example.taskmanager.entity.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Posizione opaca nella lista ordinata Stato → Priorità → ID (ultima task restituita)
+public final class TaskCursor {
+    
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    
+    private final int statusRank;
+    private final int priorityRank;
+    private final long id;
+    
+    public TaskCursor(int statusRank, int priorityRank, long id) {
+        this.statusRank = statusRank;
+        this.priorityRank = priorityRank;
+        this.id = id;
+    }
+    
+    public static TaskCursor of(Task task) {
+        return new TaskCursor(task.getStatusRank(), task.getPriorityRank(), task.getId());
+    }
+    
+    public static TaskCursor of(TaskResponse task) {
+        return new TaskCursor(task.getStatus().getSortRank(), task.getPriority().getSortRank(), task.getId());
+    }
+    
+    // Decodifica un token ricevuto dal client; lancia IllegalArgumentException se non valido
+    public static TaskCursor decode(String token) {
+        try {
+            String raw = new String(DECODER.decode(token), StandardCharsets.US_ASCII);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(TaskConstants.INVALID_CURSOR_MESSAGE);
+            }
+            return new TaskCursor(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException e Base64 non valido ricadono qui
+            throw new IllegalArgumentException(TaskConstants.INVALID_CURSOR_MESSAGE, e);
+        }
+    }
+    
+    public String encode() {
+        String raw = statusRank + ":" + priorityRank + ":" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    public int getStatusRank() {
+        return statusRank;
+    }
+    
+    public int getPriorityRank() {
+        return priorityRank;
+    }
+    
+    public long getId() {
+        return id;
+    }
+}
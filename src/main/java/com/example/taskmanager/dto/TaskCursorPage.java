@@ -0,0 +1,35 @@
+package com.example.taskmanager.dto;
+
+import java.util.List;
+
+// Pagina della paginazione a cursore: nextCursor è null sull'ultima pagina
+public class TaskCursorPage {
+    
+    private final List<TaskResponse> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+    
+    public TaskCursorPage(List<TaskResponse> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<TaskResponse> getContent() {
+        return content;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.taskmanager.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+// Validatori per le GET condizionali: ETag forte e data di ultima modifica (-1 se non applicabile)
+public final class TaskFingerprint {
+    
+    private final String etag;
+    private final long lastModified;
+    
+    private TaskFingerprint(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+    
+    // Singola task: la version cambia a ogni modifica, updated_at dà il Last-Modified
+    public static TaskFingerprint ofTask(Long id, Long version, LocalDateTime updatedAt) {
+        return new TaskFingerprint("\"" + id + "-" + version + "\"", toEpochMillis(updatedAt));
+    }
+    
+    public static TaskFingerprint of(TaskResponse task) {
+        return ofTask(task.getId(), task.getVersion(), task.getUpdatedAt());
+    }
+    
+    // Insieme delle task: ogni inserimento o modifica sposta max(updated_at), il totale dei contatori in memoria
+    // e la versione locale dei dati cambiano con le eliminazioni e gli spostamenti in archivio.
+    // Niente Last-Modified: una eliminazione non cambia max(updated_at) e If-Modified-Since darebbe un falso 304
+    public static TaskFingerprint ofTaskSetVersion(long statsTotal, long dataVersion, LocalDateTime maxUpdatedAt) {
+        return new TaskFingerprint("\"v" + statsTotal + "-" + dataVersion + "-" + toMicros36(maxUpdatedAt) + "\"", -1);
+    }
+    
+    // Lo stesso validatore per una rappresentazione diversa dal JSON (es. "12-3+smile"): un ETag forte identifica
+    // il corpo, e JSON, Smile e CBOR della stessa task sono corpi diversi. null = JSON, ETag invariato
+    public TaskFingerprint forRepresentation(String representation) {
+        if (representation == null) {
+            return this;
+        }
+        return new TaskFingerprint(etag.substring(0, etag.length() - 1) + "+" + representation + "\"", lastModified);
+    }
+    
+    public String getEtag() {
+        return etag;
+    }
+    
+    public long getLastModified() {
+        return lastModified;
+    }
+    
+    private static String toMicros36(LocalDateTime dateTime) {
+        long micros = dateTime == null ? 0
+                : dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+        return Long.toString(micros, 36);
+    }
+    
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
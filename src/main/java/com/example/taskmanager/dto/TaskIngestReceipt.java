@@ -0,0 +1,45 @@
+package com.example.taskmanager.dto;
+
+// Stato di una task inviata all'inserimento asincrono, consultabile con il ticket
+public class TaskIngestReceipt {
+    
+    public enum State {
+        QUEUED,
+        CREATED,
+        INVALID,
+        FAILED
+    }
+    
+    private final String ticket;
+    private final State state;
+    private final Long taskId;
+    private final String error;
+    
+    public TaskIngestReceipt(String ticket, State state, Long taskId, String error) {
+        this.ticket = ticket;
+        this.state = state;
+        this.taskId = taskId;
+        this.error = error;
+    }
+    
+    public static TaskIngestReceipt queued(String ticket) {
+        return new TaskIngestReceipt(ticket, State.QUEUED, null, null);
+    }
+    
+    public String getTicket() {
+        return ticket;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    // Id della task creata (solo con state CREATED)
+    public Long getTaskId() {
+        return taskId;
+    }
+    
+    public String getError() {
+        return error;
+    }
+}
@@ -17,6 +17,7 @@ public class TaskResponse {
     private LocalDateTime dueDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     
     // Costruttori
     public TaskResponse() {}
@@ -30,6 +31,21 @@ public class TaskResponse {
         this.dueDate = task.getDueDate();
         this.createdAt = task.getCreatedAt();
         this.updatedAt = task.getUpdatedAt();
+        this.version = task.getVersion();
+    }
+    
+    // Costruttore per le proiezioni JPQL (SELECT new ...): le letture non idratano entità gestite
+    public TaskResponse(Long id, String title, String description, TaskStatus status, TaskPriority priority,
+                        LocalDateTime dueDate, LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.status = status;
+        this.priority = priority;
+        this.dueDate = dueDate;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
     }
     
     // Getters e Setters
@@ -97,6 +113,14 @@ public class TaskResponse {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     // Metodi di formattazione per le date
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
     
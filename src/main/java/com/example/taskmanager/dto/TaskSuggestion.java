@@ -0,0 +1,20 @@
+package com.example.taskmanager.dto;
+
+public class TaskSuggestion {
+    
+    private final Long id;
+    private final String title;
+    
+    public TaskSuggestion(Long id, String title) {
+        this.id = id;
+        this.title = title;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+}
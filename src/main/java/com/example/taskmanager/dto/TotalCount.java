@@ -0,0 +1,12 @@
+package com.example.taskmanager.dto;
+
+// Come calcolare il totale delle liste paginate (parametro total di /api/tasks e /api/tasks/search/advanced)
+public enum TotalCount {
+    // COUNT a ogni richiesta: totalElements e totalPages esatti
+    EXACT,
+    // Conteggio in cache (o stima del planner PostgreSQL): totalElements e totalPages approssimati,
+    // nessun COUNT mentre si scorrono le pagine della stessa ricerca
+    APPROXIMATE,
+    // Nessun conteggio: legge size + 1 righe e indica solo se esiste una pagina successiva (Slice)
+    NONE
+}
@@ -0,0 +1,114 @@
+package com.example.taskmanager.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Task conclusa spostata in tasks_archive da TaskArchiver: sola lettura, l'id è quello che aveva in tasks
+@Entity
+@Immutable
+@Table(name = "tasks_archive")
+public class ArchivedTask {
+    
+    @Id
+    private Long id;
+    
+    @Column(nullable = false)
+    private String title;
+    
+    private String description;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskStatus status;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskPriority priority;
+    
+    @Column(name = "status_rank", nullable = false)
+    private int statusRank;
+    
+    @Column(name = "priority_rank", nullable = false)
+    private int priorityRank;
+    
+    @Column(name = "due_date")
+    private LocalDateTime dueDate;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Column(nullable = false)
+    private Long version;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+    
+    protected ArchivedTask() {}
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public TaskStatus getStatus() {
+        return status;
+    }
+    
+    public TaskPriority getPriority() {
+        return priority;
+    }
+    
+    public int getStatusRank() {
+        return statusRank;
+    }
+    
+    public int getPriorityRank() {
+        return priorityRank;
+    }
+    
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArchivedTask task = (ArchivedTask) o;
+        return id != null && id.equals(task.id);
+    }
+    
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+}
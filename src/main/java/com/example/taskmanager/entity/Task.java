@@ -13,8 +13,13 @@ import java.time.LocalDateTime;
 @Table(name = "tasks")
 public class Task {
     
+    // Sequenza con optimizer pooled: gli id arrivano a blocchi di ID_ALLOCATION_SIZE senza
+    // round trip per ogni insert, così Hibernate può raggruppare gli INSERT in batch JDBC
+    // (con IDENTITY il batching degli insert è disabilitato)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_id_gen")
+    @SequenceGenerator(name = "tasks_id_gen", sequenceName = "tasks_id_seq",
+                       allocationSize = TaskConstants.ID_ALLOCATION_SIZE)
     private Long id;
     
     @NotBlank(message = TaskConstants.TITLE_REQUIRED_MESSAGE)
@@ -34,6 +39,13 @@ public class Task {
     @Column(nullable = false)
     private TaskPriority priority = TaskPriority.MEDIUM;
     
+    // Rank derivati da status e priority: servono l'ordinamento predefinito tramite indice
+    @Column(name = "status_rank", nullable = false)
+    private int statusRank = TaskStatus.PENDING.getSortRank();
+    
+    @Column(name = "priority_rank", nullable = false)
+    private int priorityRank = TaskPriority.MEDIUM.getSortRank();
+    
     @Column(name = "due_date")
     private LocalDateTime dueDate;
     
@@ -45,6 +57,11 @@ public class Task {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
     
+    // Versione per il lock ottimistico (incrementata anche dagli UPDATE diretti del repository)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Costruttori
     public Task() {}
     
@@ -84,6 +101,9 @@ public class Task {
     
     public void setStatus(TaskStatus status) {
         this.status = status;
+        if (status != null) {
+            this.statusRank = status.getSortRank();
+        }
     }
     
     public TaskPriority getPriority() {
@@ -92,6 +112,17 @@ public class Task {
     
     public void setPriority(TaskPriority priority) {
         this.priority = priority;
+        if (priority != null) {
+            this.priorityRank = priority.getSortRank();
+        }
+    }
+    
+    public int getStatusRank() {
+        return statusRank;
+    }
+    
+    public int getPriorityRank() {
+        return priorityRank;
     }
     
     public LocalDateTime getDueDate() {
@@ -118,6 +149,14 @@ public class Task {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     @Override
     public String toString() {
         return "Task{" +
@@ -129,6 +168,7 @@ public class Task {
                 ", dueDate=" + dueDate +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
     
@@ -1,21 +1,28 @@
 package com.example.taskmanager.entity;
 
 public enum TaskPriority {
-    LOW("Bassa"),
-    MEDIUM("Media"),
-    HIGH("Alta"),
-    URGENT("Urgente");
+    LOW("Bassa", 4),
+    MEDIUM("Media", 3),
+    HIGH("Alta", 2),
+    URGENT("Urgente", 1);
     
     private final String displayName;
+    private final int sortRank;
     
-    TaskPriority(String displayName) {
+    TaskPriority(String displayName, int sortRank) {
         this.displayName = displayName;
+        this.sortRank = sortRank;
     }
     
     public String getDisplayName() {
         return displayName;
     }
     
+    // Posizione nell'ordinamento predefinito delle task (salvata in tasks.priority_rank)
+    public int getSortRank() {
+        return sortRank;
+    }
+    
     // Metodo di utilità per ottenere il colore CSS associato alla priorità
     public String getColorClass() {
         return switch (this) {
@@ -1,21 +1,28 @@
 package com.example.taskmanager.entity;
 
 public enum TaskStatus {
-    PENDING("In Attesa"),
-    IN_PROGRESS("In Corso"),
-    COMPLETED("Completata"),
-    CANCELLED("Cancellata");
+    PENDING("In Attesa", 2),
+    IN_PROGRESS("In Corso", 1),
+    COMPLETED("Completata", 3),
+    CANCELLED("Cancellata", 4);
     
     private final String displayName;
+    private final int sortRank;
     
-    TaskStatus(String displayName) {
+    TaskStatus(String displayName, int sortRank) {
         this.displayName = displayName;
+        this.sortRank = sortRank;
     }
     
     public String getDisplayName() {
         return displayName;
     }
     
+    // Posizione nell'ordinamento predefinito delle task (salvata in tasks.status_rank)
+    public int getSortRank() {
+        return sortRank;
+    }
+    
     // Metodo di utilità per ottenere il colore CSS associato allo status
     public String getColorClass() {
         return switch (this) {
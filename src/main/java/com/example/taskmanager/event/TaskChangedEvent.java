@@ -0,0 +1,67 @@
+package com.example.taskmanager.event;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskStatus;
+
+// Evento pubblicato da TaskService (e da TaskArchiver) a ogni scrittura; i listener in memoria lo ricevono dopo il commit
+public class TaskChangedEvent {
+    
+    public enum Type {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        DELETED,
+        // Spostata in tasks_archive da TaskArchiver: non è più fra le task attive ma resta leggibile
+        ARCHIVED
+    }
+    
+    private final Type type;
+    private final Long taskId;
+    private final TaskStatus previousStatus;
+    private final TaskResponse task;
+    
+    private TaskChangedEvent(Type type, Long taskId, TaskStatus previousStatus, TaskResponse task) {
+        this.type = type;
+        this.taskId = taskId;
+        this.previousStatus = previousStatus;
+        this.task = task;
+    }
+    
+    public static TaskChangedEvent created(TaskResponse task) {
+        return new TaskChangedEvent(Type.CREATED, task.getId(), null, task);
+    }
+    
+    public static TaskChangedEvent updated(TaskStatus previousStatus, TaskResponse task) {
+        return new TaskChangedEvent(Type.UPDATED, task.getId(), previousStatus, task);
+    }
+    
+    public static TaskChangedEvent statusChanged(TaskStatus previousStatus, TaskResponse task) {
+        return new TaskChangedEvent(Type.STATUS_CHANGED, task.getId(), previousStatus, task);
+    }
+    
+    public static TaskChangedEvent deleted(Long taskId, TaskStatus previousStatus) {
+        return new TaskChangedEvent(Type.DELETED, taskId, previousStatus, null);
+    }
+    
+    public static TaskChangedEvent archived(Long taskId, TaskStatus status) {
+        return new TaskChangedEvent(Type.ARCHIVED, taskId, status, null);
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public Long getTaskId() {
+        return taskId;
+    }
+    
+    // Status prima della modifica (null per CREATED)
+    public TaskStatus getPreviousStatus() {
+        return previousStatus;
+    }
+    
+    // Stato della task dopo la modifica (null per DELETED e ARCHIVED)
+    public TaskResponse getTask() {
+        return task;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.ArchivedTask;
+import com.example.taskmanager.entity.TaskStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+// Letture sull'archivio (tasks_archive), usate solo quando la richiesta chiede includeArchived
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+    
+    String ARCHIVED_RESPONSE_SELECT = "SELECT new com.example.taskmanager.dto.TaskResponse(" +
+            "a.id, a.title, a.description, a.status, a.priority, a.dueDate, a.createdAt, a.updatedAt, a.version) " +
+            "FROM ArchivedTask a ";
+    
+    @Query(ARCHIVED_RESPONSE_SELECT + "WHERE a.id = :id")
+    Optional<TaskResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(ARCHIVED_RESPONSE_SELECT + "WHERE a.status = :status")
+    List<TaskResponse> findResponsesByStatus(@Param("status") TaskStatus status);
+    
+    @Query(ARCHIVED_RESPONSE_SELECT + "WHERE LOWER(a.title) LIKE LOWER(CONCAT('%', :title, '%'))")
+    List<TaskResponse> findResponsesByTitleContaining(@Param("title") String title);
+    
+    // Conteggio per status dell'archivio (letto una volta da TaskStatsStore, poi aggiornato dagli eventi)
+    @Query("SELECT a.status AS status, COUNT(a) AS total FROM ArchivedTask a GROUP BY a.status")
+    List<TaskRepository.StatusCount> countGroupedByStatus();
+}
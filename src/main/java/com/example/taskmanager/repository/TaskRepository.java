@@ -1,20 +1,48 @@
 package com.example.taskmanager.repository;
 
+import com.example.taskmanager.constants.TaskConstants;
+import com.example.taskmanager.dto.TaskResponse;
 import com.example.taskmanager.entity.Task;
 import com.example.taskmanager.entity.TaskPriority;
 import com.example.taskmanager.entity.TaskStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
+    
+    // Proiezione diretta in TaskResponse per le letture: niente entità gestite né snapshot per il dirty checking
+    String TASK_RESPONSE_SELECT = "SELECT new com.example.taskmanager.dto.TaskResponse(" +
+            "t.id, t.title, t.description, t.status, t.priority, t.dueDate, t.createdAt, t.updatedAt, t.version) " +
+            "FROM Task t ";
+    
+    // Ordinamento predefinito Stato → Priorità → ID, servito da idx_tasks_custom_order
+    String CUSTOM_ORDER = "ORDER BY t.statusRank, t.priorityRank, -t.id";
+    
+    // Lista comprese le task archiviate: le due tabelle hanno lo stesso indice sull'ordinamento,
+    // neg_id serve perché l'ORDER BY di una UNION usa solo colonne
+    String INCLUDING_ARCHIVED_SELECT = "SELECT id, title, description, status, priority, status_rank, " +
+            "priority_rank, due_date, created_at, updated_at, version, -id AS neg_id FROM tasks " +
+            "UNION ALL " +
+            "SELECT id, title, description, status, priority, status_rank, priority_rank, due_date, " +
+            "created_at, updated_at, version, -id AS neg_id FROM tasks_archive " +
+            "ORDER BY status_rank, priority_rank, neg_id";
     
     // Trova task per status
     List<Task> findByStatus(TaskStatus status);
@@ -44,43 +72,216 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     // Trova task con paginazione per priority
     Page<Task> findByPriority(TaskPriority priority, Pageable pageable);
     
-    // Ricerca generale con paginazione - query nativa per ricerca parziale sicura
+    // Proiezioni in TaskResponse per gli endpoint di sola lettura
+    @Query(TASK_RESPONSE_SELECT + "WHERE t.id = :id")
+    Optional<TaskResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(TASK_RESPONSE_SELECT)
+    List<TaskResponse> findAllResponses();
+    
+    @Query(TASK_RESPONSE_SELECT + "WHERE t.priority = :priority")
+    List<TaskResponse> findResponsesByPriority(@Param("priority") TaskPriority priority);
+    
+    @Query(TASK_RESPONSE_SELECT + "WHERE t.dueDate < :now AND t.status != 'COMPLETED'")
+    List<TaskResponse> findOverdueResponses(@Param("now") LocalDateTime now);
+    
+    // Task non completate con una scadenza (caricamento di TaskDueDateIndex)
+    @Query(TASK_RESPONSE_SELECT + "WHERE t.dueDate IS NOT NULL AND t.status != 'COMPLETED'")
+    List<TaskResponse> findOpenResponsesWithDueDate();
+    
+    @Query(TASK_RESPONSE_SELECT + "WHERE LOWER(t.title) LIKE LOWER(CONCAT('%', :title, '%'))")
+    List<TaskResponse> findResponsesByTitleContaining(@Param("title") String title);
+    
+    // Ricerca full-text PostgreSQL: tsvector pesato su titolo/descrizione più similarità trigram
+    // sul titolo per gli errori di battitura, ordinata per rilevanza
     @Query(value = "SELECT * FROM tasks WHERE " +
-           "(:title IS NULL OR LOWER(title) LIKE LOWER('%' || :title || '%')) AND " +
-           "(:status IS NULL OR status = :status) AND " +
-           "(:priority IS NULL OR priority = :priority)", 
+           "search_vector @@ plainto_tsquery('italian', :query) OR lower(title) % lower(:query) " +
+           "ORDER BY ts_rank(search_vector, plainto_tsquery('italian', :query)) " +
+           "+ similarity(lower(title), lower(:query)) DESC, id DESC",
            countQuery = "SELECT COUNT(*) FROM tasks WHERE " +
-           "(:title IS NULL OR LOWER(title) LIKE LOWER('%' || :title || '%')) AND " +
-           "(:status IS NULL OR status = :status) AND " +
-           "(:priority IS NULL OR priority = :priority)",
+           "search_vector @@ plainto_tsquery('italian', :query) OR lower(title) % lower(:query)",
            nativeQuery = true)
-    Page<Task> findTasksWithFilters(@Param("title") String title, 
-                                   @Param("status") String status, 
-                                   @Param("priority") String priority, 
-                                   Pageable pageable);
+    Page<Task> searchFullTextPostgres(@Param("query") String query, Pageable pageable);
+    
+    // Ricerca full-text portabile (H2): corrispondenza parziale su titolo e descrizione,
+    // con i titoli che iniziano con il testo cercato prima degli altri risultati
+    @Query(value = "SELECT * FROM tasks WHERE " +
+           "LOWER(title) LIKE LOWER('%' || :query || '%') OR LOWER(description) LIKE LOWER('%' || :query || '%') " +
+           "ORDER BY CASE " +
+           "  WHEN LOWER(title) LIKE LOWER(:query || '%') THEN 1 " +
+           "  WHEN LOWER(title) LIKE LOWER('%' || :query || '%') THEN 2 " +
+           "  ELSE 3 END, id DESC",
+           countQuery = "SELECT COUNT(*) FROM tasks WHERE " +
+           "LOWER(title) LIKE LOWER('%' || :query || '%') OR LOWER(description) LIKE LOWER('%' || :query || '%')",
+           nativeQuery = true)
+    Page<Task> searchFullTextFallback(@Param("query") String query, Pageable pageable);
+    
+    // Solo lo status di una task (serve alle statistiche quando la si elimina)
+    @Query("SELECT t.status FROM Task t WHERE t.id = :id")
+    Optional<TaskStatus> findStatusById(@Param("id") Long id);
+    
+    // Cambio status con un solo UPDATE, condizionato alla versione letta (lock ottimistico) e a uno status
+    // diverso da quello nuovo: restituisce 0 se la task non esiste, è stata modificata nel frattempo
+    // o ha già quello status (il confronto avviene sulla riga, non sullo snapshot)
+    @Modifying
+    @Query("UPDATE Task t SET t.status = :status, t.statusRank = :statusRank, " +
+           "t.updatedAt = :updatedAt, t.version = t.version + 1 " +
+           "WHERE t.id = :id AND t.version = :version AND t.status <> :status")
+    int updateStatusIfVersion(@Param("id") Long id,
+                              @Param("version") Long version,
+                              @Param("status") TaskStatus status,
+                              @Param("statusRank") int statusRank,
+                              @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Cambio status PostgreSQL senza snapshot: un solo UPDATE ... RETURNING che restituisce la riga aggiornata
+    // e lo status precedente (bloccato dalla CTE fino al commit). Vuoto se la task non esiste o ha già lo status
+    @Query(value = "WITH previous AS (SELECT id, status FROM tasks WHERE id = :id AND status <> :status FOR UPDATE) " +
+           "UPDATE tasks t SET status = :status, status_rank = :statusRank, updated_at = :updatedAt, " +
+           "version = t.version + 1 FROM previous WHERE t.id = previous.id " +
+           "RETURNING t.id AS id, t.title AS title, t.description AS description, t.status AS status, " +
+           "t.priority AS priority, t.due_date AS \"dueDate\", t.created_at AS \"createdAt\", " +
+           "t.updated_at AS \"updatedAt\", t.version AS version, previous.status AS \"previousStatus\"",
+           nativeQuery = true)
+    Optional<StatusChange> updateStatusReturning(@Param("id") Long id,
+                                                 @Param("status") String status,
+                                                 @Param("statusRank") int statusRank,
+                                                 @Param("updatedAt") LocalDateTime updatedAt);
+    
+    interface StatusChange {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        TaskStatus getStatus();
+        TaskPriority getPriority();
+        LocalDateTime getDueDate();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        Long getVersion();
+        TaskStatus getPreviousStatus();
+    }
+    
+    // Eliminazione PostgreSQL con un solo DELETE ... RETURNING dello status (serve alle statistiche);
+    // vuoto se la task non esiste
+    @Query(value = "DELETE FROM tasks WHERE id = :id RETURNING status", nativeQuery = true)
+    Optional<TaskStatus> deleteReturningStatus(@Param("id") Long id);
+    
+    // Eliminazione con un solo DELETE, condizionata alla versione letta
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id = :id AND t.version = :version")
+    int deleteByIdIfVersion(@Param("id") Long id, @Param("version") Long version);
+    
+    // Eliminazione con un solo DELETE, senza leggere prima l'entità
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id = :id")
+    int deleteTaskById(@Param("id") Long id);
     
     // Conta task per status
     long countByStatus(TaskStatus status);
     
+    // Conteggio per status in un'unica query aggregata (solo tasks: l'archivio è contato a parte)
+    @Query("SELECT t.status AS status, COUNT(t) AS total FROM Task t GROUP BY t.status")
+    List<StatusCount> countGroupedByStatus();
+    
+    interface StatusCount {
+        TaskStatus getStatus();
+        long getTotal();
+    }
+    
+    // Solo id e titolo di tutte le task, per costruire l'indice dei suggerimenti
+    @Query("SELECT t.id AS id, t.title AS title FROM Task t")
+    List<TaskTitle> findAllTitles();
+    
+    interface TaskTitle {
+        Long getId();
+        String getTitle();
+    }
+    
+    // Id e status delle task indicate (operazioni bulk: serve lo status precedente per le statistiche)
+    @Query("SELECT t.id AS id, t.status AS status FROM Task t WHERE t.id IN :ids")
+    List<TaskIdStatus> findIdAndStatusByIdIn(@Param("ids") Collection<Long> ids);
+    
+    interface TaskIdStatus {
+        Long getId();
+        TaskStatus getStatus();
+    }
+    
     // Conta task per priority
     long countByPriority(TaskPriority priority);
     
+    // Version e ultima modifica di una task, per le GET condizionali senza costruire la risposta
+    @Query("SELECT t.version AS version, t.updatedAt AS updatedAt FROM Task t WHERE t.id = :id")
+    Optional<TaskVersion> findVersionById(@Param("id") Long id);
+    
+    interface TaskVersion {
+        Long getVersion();
+        LocalDateTime getUpdatedAt();
+    }
+    
+    // Solo max(updated_at): una lettura dell'ultima voce di idx_tasks_updated_at, senza contare le righe
+    @Query("SELECT MAX(t.updatedAt) FROM Task t")
+    LocalDateTime findLastUpdatedAt();
+    
     // Query personalizzata per ordinamento: Stato → Priorità → ID
-    @Query(value = "SELECT * FROM tasks ORDER BY " +
-           "CASE status " +
-           "  WHEN 'IN_PROGRESS' THEN 1 " +
-           "  WHEN 'PENDING' THEN 2 " +
-           "  WHEN 'COMPLETED' THEN 3 " +
-           "  WHEN 'CANCELLED' THEN 4 " +
-           "  ELSE 5 END, " +
-           "CASE priority " +
-           "  WHEN 'URGENT' THEN 1 " +
-           "  WHEN 'HIGH' THEN 2 " +
-           "  WHEN 'MEDIUM' THEN 3 " +
-           "  WHEN 'LOW' THEN 4 " +
-           "  ELSE 5 END, " +
-           "id DESC",
-           countQuery = "SELECT COUNT(*) FROM tasks",
+    // Usa le colonne di rank così l'ordinamento è servito da idx_tasks_custom_order
+    @Query(value = TASK_RESPONSE_SELECT + CUSTOM_ORDER,
+           countQuery = "SELECT COUNT(t) FROM Task t")
+    Page<TaskResponse> findAllWithCustomOrder(Pageable pageable);
+    
+    // Come findAllWithCustomOrder senza COUNT (size + 1 righe)
+    @Query(TASK_RESPONSE_SELECT + CUSTOM_ORDER)
+    Slice<TaskResponse> findSliceWithCustomOrder(Pageable pageable);
+    
+    // Paginazione a cursore (keyset): prima pagina con l'ordinamento personalizzato
+    @Query(TASK_RESPONSE_SELECT + CUSTOM_ORDER)
+    List<TaskResponse> findFirstWithCustomOrder(Limit limit);
+    
+    // Paginazione a cursore (keyset): pagina successiva alla posizione del cursore
+    @Query(TASK_RESPONSE_SELECT +
+           "WHERE (t.statusRank, t.priorityRank, -t.id) > (:statusRank, :priorityRank, :negatedId) " +
+           CUSTOM_ORDER)
+    List<TaskResponse> findNextWithCustomOrder(@Param("statusRank") int statusRank,
+                                               @Param("priorityRank") int priorityRank,
+                                               @Param("negatedId") long negatedId,
+                                               Limit limit);
+    
+    // Lista nell'ordinamento predefinito comprese le task archiviate (includeArchived)
+    @Query(value = INCLUDING_ARCHIVED_SELECT,
+           countQuery = "SELECT (SELECT COUNT(*) FROM tasks) + (SELECT COUNT(*) FROM tasks_archive)",
+           nativeQuery = true)
+    Page<Task> findAllWithCustomOrderIncludingArchived(Pageable pageable);
+    
+    // Come findAllWithCustomOrderIncludingArchived senza COUNT (size + 1 righe)
+    @Query(value = INCLUDING_ARCHIVED_SELECT, nativeQuery = true)
+    Slice<Task> findSliceWithCustomOrderIncludingArchived(Pageable pageable);
+    
+    // Righe stimate dal planner PostgreSQL per la tabella (-1 se mai analizzata), senza leggerla
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST(:table AS regclass)",
            nativeQuery = true)
-    Page<Task> findAllWithCustomOrder(Pageable pageable);
+    long estimateRowCount(@Param("table") String table);
+    
+    // Task concluse non modificate da prima di cutoff, bloccate fino al commit dello spostamento in archivio.
+    // SKIP LOCKED salta le righe che una richiesta sta modificando: verranno riprese al giro successivo
+    @Query(value = "SELECT id AS id, status AS status FROM tasks " +
+           "WHERE status IN ('COMPLETED', 'CANCELLED') AND updated_at < :cutoff " +
+           "ORDER BY updated_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<TaskIdStatus> lockArchivable(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+    
+    // Copia in tasks_archive le task indicate (seguita da deleteAllByIdInBatch nella stessa transazione)
+    @Modifying
+    @Query(value = "INSERT INTO tasks_archive (id, title, description, status, priority, status_rank, " +
+           "priority_rank, due_date, created_at, updated_at, version, archived_at) " +
+           "SELECT id, title, description, status, priority, status_rank, priority_rank, due_date, " +
+           "created_at, updated_at, version, :archivedAt FROM tasks WHERE id IN (:ids)",
+           nativeQuery = true)
+    int copyToArchive(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+    
+    // Stream di tutte le task per l'export: il driver legge a blocchi di EXPORT_FETCH_SIZE righe
+    // invece di materializzare l'intero result set (va consumato dentro una transazione)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TaskConstants.EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Task t ORDER BY t.id")
+    Stream<Task> streamAllForExport();
 }
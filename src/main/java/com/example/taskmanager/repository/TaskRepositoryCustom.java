@@ -0,0 +1,25 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+// Query di TaskRepository costruite a runtime (vedi TaskRepositoryCustomImpl)
+public interface TaskRepositoryCustom {
+    
+    List<TaskResponse> findResponsesByStatus(TaskStatus status);
+    
+    // Ricerca generale con paginazione (filtri opzionali, null = filtro assente; ordinamento dal Pageable)
+    Page<TaskResponse> findTasksWithFilters(String title, TaskStatus status, TaskPriority priority, Pageable pageable);
+    
+    // Come findTasksWithFilters senza COUNT: legge size + 1 righe per sapere se c'è una pagina successiva
+    Slice<TaskResponse> findSliceWithFilters(String title, TaskStatus status, TaskPriority priority, Pageable pageable);
+    
+    // Solo il totale della ricerca avanzata (total=APPROXIMATE lo mette in cache)
+    long countWithFilters(String title, TaskStatus status, TaskPriority priority);
+}
@@ -0,0 +1,100 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Ricerca avanzata con nel WHERE solo i filtri presenti: con "(:status IS NULL OR t.status = :status)"
+// PostgreSQL non può usare un indice nel piano generico (quello delle query preparate dal driver dopo
+// le prime esecuzioni), e un titolo null è legato senza tipo (lower(bytea)).
+// Status e priorità sono letterali invece che parametri: hanno pochi valori, ogni combinazione è una query
+// con il proprio piano. Con un parametro il piano generico stima un quarto della tabella per qualsiasi valore
+// e sceglie la scansione completa anche per gli status poco frequenti (PENDING, IN_PROGRESS)
+@Transactional(readOnly = true)
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+    
+    // COUNT(*) e non COUNT(t): count(id) non può essere calcolato con un index-only scan sugli indici dei filtri
+    private static final String COUNT_SELECT = "SELECT COUNT(*) FROM Task t ";
+    
+    private final EntityManager entityManager;
+    
+    public TaskRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+    
+    @Override
+    public List<TaskResponse> findResponsesByStatus(TaskStatus status) {
+        return entityManager.createQuery(TaskRepository.TASK_RESPONSE_SELECT + "WHERE t.status = " + literal(status),
+                TaskResponse.class).getResultList();
+    }
+    
+    @Override
+    public Page<TaskResponse> findTasksWithFilters(String title, TaskStatus status, TaskPriority priority,
+                                                   Pageable pageable) {
+        List<TaskResponse> content = filteredQuery(title, status, priority, pageable, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> countWithFilters(title, status, priority));
+    }
+    
+    @Override
+    public Slice<TaskResponse> findSliceWithFilters(String title, TaskStatus status, TaskPriority priority,
+                                                    Pageable pageable) {
+        List<TaskResponse> content = filteredQuery(title, status, priority, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+    
+    @Override
+    public long countWithFilters(String title, TaskStatus status, TaskPriority priority) {
+        TypedQuery<Long> query = entityManager.createQuery(COUNT_SELECT + where(title, status, priority), Long.class);
+        bindTitle(query, title);
+        return query.getSingleResult();
+    }
+    
+    private List<TaskResponse> filteredQuery(String title, TaskStatus status, TaskPriority priority,
+                                             Pageable pageable, int maxResults) {
+        // Ordinamento dal Pageable come per le @Query (proprietà validate da Hibernate)
+        String jpql = QueryUtils.applySorting(TaskRepository.TASK_RESPONSE_SELECT + where(title, status, priority),
+                pageable.getSort(), "t");
+        TypedQuery<TaskResponse> query = entityManager.createQuery(jpql, TaskResponse.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(maxResults);
+        bindTitle(query, title);
+        return query.getResultList();
+    }
+    
+    private static String where(String title, TaskStatus status, TaskPriority priority) {
+        StringBuilder where = new StringBuilder();
+        if (title != null) {
+            where.append("LOWER(t.title) LIKE LOWER(CONCAT('%', :title, '%'))");
+        }
+        if (status != null) {
+            where.append(where.isEmpty() ? "" : " AND ").append("t.status = ").append(literal(status));
+        }
+        if (priority != null) {
+            where.append(where.isEmpty() ? "" : " AND ").append("t.priority = ").append(literal(priority));
+        }
+        return where.isEmpty() ? "" : "WHERE " + where;
+    }
+    
+    // Costante enum in JPQL (es. com.example.taskmanager.entity.TaskStatus.PENDING): nessun input dell'utente nel testo
+    private static String literal(Enum<?> value) {
+        return value.getDeclaringClass().getName() + "." + value.name();
+    }
+    
+    private static void bindTitle(TypedQuery<?> query, String title) {
+        if (title != null) {
+            query.setParameter("title", title);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.taskmanager.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Accorpa le letture identiche concorrenti: il primo chiamante per una chiave esegue il caricamento nel proprio
+// thread, quelli che arrivano mentre è in corso ne attendono il risultato (o l'eccezione) invece di ripetere la query.
+// Nessuna cache: finito il caricamento la chiave viene rimossa e il chiamante successivo carica di nuovo.
+// Le richieste accorpate sono contate in taskmanager.singleflight.coalesced (tag name).
+public class SingleFlight<K, V> {
+    
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+    
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        FunctionCounter.builder("taskmanager.singleflight.coalesced", coalesced, LongAdder::sum)
+                .description("Letture accorpate a un caricamento già in corso")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+    
+    // Risultato di loader per key, condiviso con i chiamanti concorrenti per la stessa chiave
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+    
+    // Stacca il caricamento in corso per key: chi arriva dopo ne avvia uno nuovo invece di unirsi a uno
+    // che potrebbe aver letto dati ormai superati (es. dopo il commit di una modifica). Chi è già in attesa
+    // riceve comunque il risultato del caricamento staccato
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+    
+    // Attende il caricamento altrui e rilancia la sua eccezione così com'è (es. TaskNotFoundException)
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
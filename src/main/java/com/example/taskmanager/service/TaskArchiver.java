@@ -0,0 +1,94 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.event.TaskChangedEvent;
+import com.example.taskmanager.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+// Sposta in tasks_archive le task concluse (COMPLETED, CANCELLED) non modificate da più di
+// taskmanager.archive.after: la tabella tasks resta piccola e le sue scansioni (lista, filtri, conteggi)
+// non pagano per lo storico. Ogni chunk è una transazione (blocco delle righe, copia, DELETE), così
+// una task è sempre in una sola delle due tabelle; gli eventi ARCHIVED aggiornano gli indici in memoria.
+@Component
+@ConditionalOnProperty(prefix = "taskmanager.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TaskArchiver {
+    
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiver.class);
+    
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration after;
+    private final int chunkSize;
+    private final Counter archived;
+    
+    public TaskArchiver(TaskRepository taskRepository,
+                        PlatformTransactionManager transactionManager,
+                        ApplicationEventPublisher eventPublisher,
+                        MeterRegistry meterRegistry,
+                        @Value("${taskmanager.archive.after:30d}") Duration after,
+                        @Value("${taskmanager.archive.chunk-size:1000}") int chunkSize) {
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.after = after;
+        this.chunkSize = chunkSize;
+        this.archived = Counter.builder("taskmanager.archive.moved")
+                .description("Task spostate in archivio")
+                .register(meterRegistry);
+    }
+    
+    // Sposta un chunk alla volta finché restano task da archiviare
+    @Scheduled(fixedDelayString = "${taskmanager.archive.interval:PT1H}",
+               initialDelayString = "${taskmanager.archive.initial-delay:PT1M}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(after);
+        long start = System.nanoTime();
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> moveChunk(cutoff));
+            total += moved;
+        } while (moved == chunkSize);
+        
+        if (total > 0) {
+            log.info("Archiviate {} task concluse prima di {} in {} ms", total, cutoff,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+    
+    private int moveChunk(LocalDateTime cutoff) {
+        List<TaskRepository.TaskIdStatus> rows = taskRepository.lockArchivable(cutoff, chunkSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (TaskRepository.TaskIdStatus row : rows) {
+            ids.add(row.getId());
+        }
+        // Precisione del timestamp allineata a quella delle colonne TIMESTAMP
+        taskRepository.copyToArchive(ids, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        taskRepository.deleteAllByIdInBatch(ids);
+        
+        for (TaskRepository.TaskIdStatus row : rows) {
+            eventPublisher.publishEvent(TaskChangedEvent.archived(row.getId(), row.getStatus()));
+        }
+        archived.increment(rows.size());
+        return rows.size();
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.TaskBatchItemResult;
+import com.example.taskmanager.dto.TaskBatchItemResult.Outcome;
+import com.example.taskmanager.dto.TaskBatchResult;
+import com.example.taskmanager.dto.TaskBatchUpdateItem;
+import com.example.taskmanager.dto.TaskRequest;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.Task;
+import com.example.taskmanager.entity.TaskStatus;
+import com.example.taskmanager.event.TaskChangedEvent;
+import com.example.taskmanager.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+// Operazioni bulk su task: ogni chunk di elementi validi è una transazione, gli INSERT/UPDATE
+// vengono inviati in batch JDBC (hibernate.jdbc.batch_size). Se un chunk fallisce i suoi elementi
+// vengono riprovati uno per uno, così ogni elemento ha il proprio esito.
+@Service
+public class TaskBatchService {
+    
+    private static final Logger log = LoggerFactory.getLogger(TaskBatchService.class);
+    
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxItems;
+    
+    public TaskBatchService(TaskRepository taskRepository,
+                            EntityManager entityManager,
+                            PlatformTransactionManager transactionManager,
+                            Validator validator,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${taskmanager.batch.chunk-size:500}") int chunkSize,
+                            @Value("${taskmanager.batch.max-items:50000}") int maxItems) {
+        this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+    
+    // Crea più task in un'unica chiamata
+    public TaskBatchResult createTasks(List<TaskRequest> requests) {
+        checkSize(requests);
+        TaskBatchItemResult[] results = new TaskBatchItemResult[requests.size()];
+        List<Integer> valid = validate(requests, results);
+        
+        runInChunks(valid, results, index -> null, chunk -> {
+            List<Task> tasks = new ArrayList<>(chunk.size());
+            for (Integer index : chunk) {
+                tasks.add(TaskService.toNewTask(requests.get(index)));
+            }
+            taskRepository.saveAll(tasks);
+            entityManager.flush();
+            
+            for (int i = 0; i < chunk.size(); i++) {
+                Task task = tasks.get(i);
+                eventPublisher.publishEvent(TaskChangedEvent.created(new TaskResponse(task)));
+                results[chunk.get(i)] = TaskBatchItemResult.success(chunk.get(i), task.getId(), Outcome.CREATED);
+            }
+        });
+        return new TaskBatchResult(Arrays.asList(results));
+    }
+    
+    // Aggiorna più task in un'unica chiamata (le task di ogni chunk sono lette con una sola query)
+    public TaskBatchResult updateTasks(List<TaskBatchUpdateItem> items) {
+        checkSize(items);
+        TaskBatchItemResult[] results = new TaskBatchItemResult[items.size()];
+        List<Integer> valid = validate(items, results);
+        
+        runInChunks(valid, results, index -> items.get(index).getId(), chunk -> {
+            Set<Long> ids = chunk.stream().map(index -> items.get(index).getId()).collect(Collectors.toSet());
+            Map<Long, Task> tasksById = taskRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Task::getId, task -> task));
+            
+            Map<Integer, TaskStatus> previousStatuses = new HashMap<>();
+            for (Integer index : chunk) {
+                TaskBatchUpdateItem item = items.get(index);
+                Task task = tasksById.get(item.getId());
+                if (task == null) {
+                    results[index] = TaskBatchItemResult.failure(index, item.getId(), Outcome.NOT_FOUND,
+                            "Task con ID " + item.getId() + " non trovata");
+                    continue;
+                }
+                previousStatuses.put(index, task.getStatus());
+                TaskService.applyRequest(task, item);
+            }
+            entityManager.flush();
+            
+            previousStatuses.forEach((index, previousStatus) -> {
+                Task task = tasksById.get(items.get(index).getId());
+                eventPublisher.publishEvent(TaskChangedEvent.updated(previousStatus, new TaskResponse(task)));
+                results[index] = TaskBatchItemResult.success(index, task.getId(), Outcome.UPDATED);
+            });
+        });
+        return new TaskBatchResult(Arrays.asList(results));
+    }
+    
+    // Elimina più task: una SELECT di id e status e un solo DELETE ... WHERE id IN per chunk
+    public TaskBatchResult deleteTasks(List<Long> ids) {
+        checkSize(ids);
+        TaskBatchItemResult[] results = new TaskBatchItemResult[ids.size()];
+        List<Integer> valid = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                results[i] = TaskBatchItemResult.failure(i, null, Outcome.INVALID, "ID non può essere null");
+            } else {
+                valid.add(i);
+            }
+        }
+        
+        runInChunks(valid, results, ids::get, chunk -> {
+            List<Long> chunkIds = chunk.stream().map(ids::get).collect(Collectors.toList());
+            Map<Long, TaskStatus> statuses = new HashMap<>();
+            for (TaskRepository.TaskIdStatus row : taskRepository.findIdAndStatusByIdIn(chunkIds)) {
+                statuses.put(row.getId(), row.getStatus());
+            }
+            if (!statuses.isEmpty()) {
+                taskRepository.deleteAllByIdInBatch(statuses.keySet());
+            }
+            
+            for (Integer index : chunk) {
+                Long id = ids.get(index);
+                // remove: un id ripetuto nella richiesta risulta eliminato una sola volta
+                TaskStatus previousStatus = statuses.remove(id);
+                if (previousStatus == null) {
+                    results[index] = TaskBatchItemResult.failure(index, id, Outcome.NOT_FOUND,
+                            "Task con ID " + id + " non trovata");
+                } else {
+                    eventPublisher.publishEvent(TaskChangedEvent.deleted(id, previousStatus));
+                    results[index] = TaskBatchItemResult.success(index, id, Outcome.DELETED);
+                }
+            }
+        });
+        return new TaskBatchResult(Arrays.asList(results));
+    }
+    
+    // Esegue ogni chunk in una transazione; se fallisce riprova i suoi elementi singolarmente.
+    // idOf dà l'id della task di ogni elemento (null per le creazioni) da riportare negli esiti FAILED
+    private void runInChunks(List<Integer> indexes, TaskBatchItemResult[] results, IntFunction<Long> idOf,
+                             Consumer<List<Integer>> work) {
+        for (int from = 0; from < indexes.size(); from += chunkSize) {
+            List<Integer> chunk = indexes.subList(from, Math.min(from + chunkSize, indexes.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> work.accept(chunk));
+            } catch (RuntimeException chunkError) {
+                log.warn("Chunk bulk di {} elementi fallito, riprovo elemento per elemento: {}",
+                        chunk.size(), chunkError.getMessage());
+                for (Integer index : chunk) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> work.accept(List.of(index)));
+                    } catch (RuntimeException itemError) {
+                        results[index] = TaskBatchItemResult.failure(index, idOf.apply(index), Outcome.FAILED,
+                                rootMessage(itemError));
+                    }
+                }
+            }
+        }
+    }
+    
+    // Valida ogni elemento: quelli non validi ricevono subito l'esito INVALID
+    private <T> List<Integer> validate(List<T> items, TaskBatchItemResult[] results) {
+        List<Integer> valid = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            if (item == null) {
+                results[i] = TaskBatchItemResult.failure(i, null, Outcome.INVALID, "Elemento null");
+                continue;
+            }
+            Set<ConstraintViolation<T>> violations = validator.validate(item);
+            if (violations.isEmpty()) {
+                valid.add(i);
+            } else {
+                String error = violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results[i] = TaskBatchItemResult.failure(i, null, Outcome.INVALID, error);
+            }
+        }
+        return valid;
+    }
+    
+    private void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("La richiesta bulk non può essere vuota");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("Una richiesta bulk può contenere al massimo " + maxItems + " elementi");
+        }
+    }
+    
+    private static String rootMessage(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
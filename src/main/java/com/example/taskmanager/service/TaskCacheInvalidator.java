@@ -0,0 +1,56 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.event.TaskChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Invalida la cache delle task dopo il commit di ogni modifica o eliminazione, solo per l'id toccato.
+// Stacca anche l'eventuale caricamento in corso per quell'id (SingleFlight): i miss successivi al commit
+// rileggono la task invece di unirsi a una query partita prima della modifica.
+// Quella query non rimette in cache il valore vecchio: TaskCacheStore scarta i caricamenti iniziati prima dell'invalidazione.
+// La modifica è segnalata a TaskCacheStore già prima del commit: fra il commit e l'invalidazione lo snapshot
+// in cache è superato e non deve servire né le letture né i validatori delle GET condizionali (falsi 304)
+@Component
+public class TaskCacheInvalidator {
+    
+    private final TaskCacheStore taskCache;
+    private final SingleFlight<Long, TaskResponse> taskLoads;
+    
+    public TaskCacheInvalidator(TaskCacheStore taskCache, SingleFlight<Long, TaskResponse> taskLoads) {
+        this.taskCache = taskCache;
+        this.taskLoads = taskLoads;
+    }
+    
+    // Segna la task come in modifica e registra l'invalidazione a fine transazione, nella stessa sincronizzazione
+    // così la modifica non risulta conclusa prima dell'invalidazione
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTaskChanging(TaskChangedEvent event) {
+        if (event.getType() == TaskChangedEvent.Type.CREATED) {
+            return;
+        }
+        Long id = event.getTaskId();
+        taskCache.beginWrite(id);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    // STATUS_UNKNOWN: il commit potrebbe essere avvenuto
+                    if (status != STATUS_ROLLED_BACK) {
+                        onTaskChanged(id);
+                    }
+                } finally {
+                    taskCache.endWrite(id);
+                }
+            }
+        });
+    }
+    
+    void onTaskChanged(Long id) {
+        taskLoads.forget(id);
+        taskCache.invalidate(id);
+    }
+}
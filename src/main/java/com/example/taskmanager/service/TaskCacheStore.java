@@ -0,0 +1,105 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.constants.TaskConstants;
+import com.example.taskmanager.dto.TaskResponse;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Cache delle task attive (TaskConstants.TASK_CACHE) con le scritture protette dalle invalidazioni concorrenti.
+// Un caricamento partito prima del commit di una modifica può finire dopo la sua invalidazione: ogni invalidazione
+// lascia una lapide (id → numero dell'invalidazione) che dura tombstoneTtl, e il valore caricato entra in cache
+// solo se per quell'id non c'è una lapide più recente dell'inizio del caricamento. I caricamenti più lunghi di
+// tombstoneTtl non vengono messi in cache (la lapide potrebbe essere già scaduta).
+// Fra due valori della stessa task resta quello con la versione più alta.
+// Dal BEFORE_COMMIT di una modifica fino alla sua invalidazione (o al rollback) lo snapshot in cache di quella task
+// non viene restituito: chi legge nel frattempo va sul database, così dopo il commit nessuno vede la versione vecchia.
+@Component
+public class TaskCacheStore {
+    
+    private final Cache cache;
+    private final ConcurrentMap<Object, Object> entries;
+    private final com.github.benmanes.caffeine.cache.Cache<Long, Long> tombstones;
+    private final AtomicLong invalidations = new AtomicLong();
+    // id → modifiche in corso di commit (vedi beginWrite)
+    private final ConcurrentMap<Long, Integer> pendingWrites = new ConcurrentHashMap<>();
+    private final long tombstoneTtlNanos;
+    
+    @SuppressWarnings("unchecked")
+    public TaskCacheStore(CacheManager cacheManager,
+                          @Value("${taskmanager.task-cache.tombstone-ttl:30s}") Duration tombstoneTtl) {
+        this.cache = cacheManager.getCache(TaskConstants.TASK_CACHE);
+        this.entries = ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache()).asMap();
+        this.tombstones = Caffeine.newBuilder()
+                .expireAfterWrite(tombstoneTtl)
+                .build();
+        this.tombstoneTtlNanos = tombstoneTtl.toNanos();
+    }
+    
+    // Snapshot della task già in cache, senza caricarla (null se assente o se una sua modifica è in corso di commit)
+    public TaskResponse get(Long id) {
+        if (pendingWrites.containsKey(id)) {
+            return null;
+        }
+        return cache.get(id, TaskResponse.class);
+    }
+    
+    // Numero di invalidazioni finora: letto prima di un caricamento, dice se una lapide è successiva
+    private long currentToken() {
+        return invalidations.get();
+    }
+    
+    // Vero se la task è stata invalidata dopo la lettura di token
+    private boolean invalidatedSince(Long id, long token) {
+        Long tombstone = tombstones.getIfPresent(id);
+        return tombstone != null && tombstone > token;
+    }
+    
+    // Esegue loader e ne mette il risultato in cache, se nel frattempo la task non è stata invalidata
+    public TaskResponse load(Long id, Supplier<TaskResponse> loader) {
+        long token = currentToken();
+        long start = System.nanoTime();
+        TaskResponse loaded = loader.get();
+        if (System.nanoTime() - start < tombstoneTtlNanos && !invalidatedSince(id, token)) {
+            entries.merge(id, loaded, TaskCacheStore::newerVersion);
+            // Invalidazione arrivata fra il controllo e la scrittura: il suo evict può aver preceduto il merge
+            if (invalidatedSince(id, token)) {
+                entries.remove(id, loaded);
+            }
+        }
+        return loaded;
+    }
+    
+    // Modifica di id in corso di commit: fino a endWrite get non restituisce lo snapshot in cache
+    public void beginWrite(Long id) {
+        pendingWrites.merge(id, 1, Integer::sum);
+    }
+    
+    // Chiamato dopo invalidate (commit) o al rollback
+    public void endWrite(Long id) {
+        pendingWrites.computeIfPresent(id, (key, count) -> count > 1 ? count - 1 : null);
+    }
+    
+    // Lapide prima dell'evict: un caricamento che non la vede ha scritto prima dell'evict, che ne rimuove il valore
+    public void invalidate(Long id) {
+        tombstones.put(id, invalidations.incrementAndGet());
+        cache.evict(id);
+    }
+    
+    private static Object newerVersion(Object current, Object loaded) {
+        Long currentVersion = ((TaskResponse) current).getVersion();
+        Long loadedVersion = ((TaskResponse) loaded).getVersion();
+        if (currentVersion == null || loadedVersion == null) {
+            return loaded;
+        }
+        return loadedVersion >= currentVersion ? loaded : current;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.config.DatabaseFeatures;
+import com.example.taskmanager.repository.ArchivedTaskRepository;
+import com.example.taskmanager.repository.TaskRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// Totali approssimati per le liste paginate con total=APPROXIMATE. Il COUNT di una ricerca viene eseguito
+// una volta e riusato per ttl da tutte le sue pagine (lo stale è limitato dal TTL, le scritture non lo invalidano).
+// Il numero complessivo di task su PostgreSQL viene dalle statistiche del planner (pg_class.reltuples),
+// aggiornate da autovacuum/ANALYZE, senza leggere la tabella.
+@Component
+public class TaskCountEstimator {
+    
+    // Sotto questa stima il COUNT costa poco ed è più preciso di reltuples
+    private static final long MIN_PLANNER_ESTIMATE = 10_000;
+    
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final DatabaseFeatures databaseFeatures;
+    private final Cache<String, Long> counts;
+    
+    public TaskCountEstimator(TaskRepository taskRepository, ArchivedTaskRepository archivedTaskRepository,
+                              DatabaseFeatures databaseFeatures, MeterRegistry meterRegistry,
+                              @Value("${taskmanager.approximate-count.max-size:10000}") long maxSize,
+                              @Value("${taskmanager.approximate-count.ttl:60s}") Duration ttl) {
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.databaseFeatures = databaseFeatures;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "counts");
+    }
+    
+    // Numero di task attive (e archiviate con includeArchived)
+    public long countAll(boolean includeArchived) {
+        if (databaseFeatures.isPostgres()) {
+            long estimate = taskRepository.estimateRowCount("tasks");
+            if (includeArchived) {
+                estimate += Math.max(taskRepository.estimateRowCount("tasks_archive"), 0);
+            }
+            if (estimate >= MIN_PLANNER_ESTIMATE) {
+                return estimate;
+            }
+        }
+        return includeArchived
+                ? count("all+archived", () -> taskRepository.count() + archivedTaskRepository.count())
+                : count("all", taskRepository::count);
+    }
+    
+    // Totale della ricerca identificata da key: dalla cache, altrimenti esegue exact e lo salva
+    public long count(String key, LongSupplier exact) {
+        return counts.get(key, k -> exact.getAsLong());
+    }
+}
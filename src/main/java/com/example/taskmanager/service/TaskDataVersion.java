@@ -0,0 +1,25 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.event.TaskChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versione globale dei dati: cresce dopo il commit di ogni scrittura sulle task (singola o bulk).
+// Chi mette in cache dati derivati la legge prima di interrogare il database e la usa nella chiave:
+// un risultato calcolato su dati vecchi resta associato a una versione già superata e non viene più servito.
+@Component
+public class TaskDataVersion {
+    
+    private final AtomicLong version = new AtomicLong();
+    
+    public long current() {
+        return version.get();
+    }
+    
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.config.ReplicaRoutingDataSource;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskStatus;
+import com.example.taskmanager.event.TaskChangedEvent;
+import com.example.taskmanager.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Indice in memoria delle task non completate ordinate per scadenza. Le task scadute sono sempre
+// il prefisso dell'indice con dueDate < adesso: quando una scadenza passa la task ci entra senza
+// spostamenti né timer, e leggerle costa O(log n + k). Costruito all'avvio e aggiornato dagli eventi
+// di TaskService, così /api/tasks/overdue non interroga il database. Ricostruito periodicamente per
+// recepire le modifiche di altre istanze o fatte fuori dall'app: il nuovo indice sostituisce il vecchio
+// solo a lettura completata, dopo aver riapplicato gli eventi arrivati durante la lettura.
+@Component
+public class TaskDueDateIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(TaskDueDateIndex.class);
+    
+    private final TaskRepository taskRepository;
+    
+    private volatile Entries entries = new Entries();
+    // Eventi ricevuti durante una ricostruzione (null se nessuna è in corso), protetti dal lock dell'indice
+    private List<TaskChangedEvent> pending;
+    
+    private volatile boolean ready;
+    
+    public TaskDueDateIndex(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${taskmanager.indexes.rebuild-interval:PT10M}",
+               initialDelayString = "${taskmanager.indexes.rebuild-interval:PT10M}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+    
+    // Legge dal database un indice nuovo senza bloccare letture e scritture, poi lo scambia con quello corrente
+    public void rebuild() {
+        synchronized (this) {
+            if (pending != null) {
+                log.debug("Ricostruzione indice scadenze già in corso");
+                return;
+            }
+            pending = new ArrayList<>();
+        }
+        long start = System.nanoTime();
+        Entries fresh = new Entries();
+        try {
+            for (TaskResponse task : ReplicaRoutingDataSource.primary(taskRepository::findOpenResponsesWithDueDate)) {
+                fresh.put(task);
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            // Gli eventi confermati durante la lettura possono mancare dal risultato: riapplicarli è innocuo
+            for (TaskChangedEvent event : pending) {
+                fresh.apply(event);
+            }
+            pending = null;
+            entries = fresh;
+        }
+        boolean first = !ready;
+        ready = true;
+        if (first) {
+            log.info("Indice scadenze costruito: {} task in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        } else {
+            log.debug("Indice scadenze ricostruito: {} task in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    // Le scritture sono serializzate: sono rare rispetto alle letture, che restano senza lock
+    @TransactionalEventListener
+    public synchronized void onTaskChanged(TaskChangedEvent event) {
+        entries.apply(event);
+        if (pending != null) {
+            pending.add(event);
+        }
+    }
+    
+    // Task con scadenza precedente a now e non completate, in ordine di scadenza
+    public List<TaskResponse> overdue(LocalDateTime now) {
+        List<TaskResponse> overdue = new ArrayList<>();
+        for (Map<Long, TaskResponse> tasks : entries.byDueDate.headMap(now, false).values()) {
+            overdue.addAll(tasks.values());
+        }
+        return overdue;
+    }
+    
+    // Contenuto dell'indice: sostituito per intero a ogni ricostruzione
+    private static final class Entries {
+        
+        // scadenza → task con quella scadenza (id → task)
+        private final NavigableMap<LocalDateTime, Map<Long, TaskResponse>> byDueDate = new ConcurrentSkipListMap<>();
+        // id → scadenza indicizzata, per rimuovere la voce vecchia quando la task cambia
+        private final Map<Long, LocalDateTime> dueDates = new ConcurrentHashMap<>();
+        
+        void apply(TaskChangedEvent event) {
+            switch (event.getType()) {
+                case CREATED, UPDATED, STATUS_CHANGED -> put(event.getTask());
+                case DELETED, ARCHIVED -> remove(event.getTaskId());
+            }
+        }
+        
+        void put(TaskResponse task) {
+            remove(task.getId());
+            if (task.getDueDate() == null || task.getStatus() == TaskStatus.COMPLETED) {
+                return;
+            }
+            dueDates.put(task.getId(), task.getDueDate());
+            byDueDate.computeIfAbsent(task.getDueDate(), key -> new ConcurrentHashMap<>()).put(task.getId(), task);
+        }
+        
+        void remove(Long id) {
+            LocalDateTime previous = dueDates.remove(id);
+            if (previous == null) {
+                return;
+            }
+            Map<Long, TaskResponse> tasks = byDueDate.get(previous);
+            if (tasks != null) {
+                tasks.remove(id);
+                if (tasks.isEmpty()) {
+                    byDueDate.remove(previous);
+                }
+            }
+        }
+        
+        int size() {
+            return dueDates.size();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.Task;
+import com.example.taskmanager.repository.TaskRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+@Service
+public class TaskExportService {
+    
+    // Ogni quante righe svuotare il buffer verso il client
+    private static final int FLUSH_EVERY = 1000;
+    
+    private static final String CSV_HEADER = "id,title,description,status,priority,dueDate,createdAt,updatedAt";
+    
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter taskWriter;
+    
+    public TaskExportService(TaskRepository taskRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+        this.taskWriter = objectMapper.writerFor(TaskResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+    
+    // Formati di export supportati
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+        
+        private final String contentType;
+        
+        ExportFormat(String contentType) {
+            this.contentType = contentType;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public static ExportFormat fromParameter(String value) {
+            try {
+                return ExportFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato di export non supportato: " + value);
+            }
+        }
+    }
+    
+    // Scrive tutte le task sull'output senza tenerle in memoria: ogni entità viene staccata
+    // dal persistence context subito dopo essere stata scritta
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Task> tasks = taskRepository.streamAllForExport()) {
+            if (format == ExportFormat.NDJSON) {
+                writeNdjson(tasks.iterator(), out);
+            } else {
+                writeCsv(tasks.iterator(), out);
+            }
+        }
+    }
+    
+    private void writeNdjson(Iterator<Task> tasks, OutputStream out) throws IOException {
+        JsonGenerator generator = taskWriter.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        
+        long written = 0;
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            taskWriter.writeValue(generator, new TaskResponse(task));
+            generator.writeRaw('\n');
+            entityManager.detach(task);
+            if (++written % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        }
+        generator.close();
+    }
+    
+    private void writeCsv(Iterator<Task> tasks, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        
+        long written = 0;
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            writer.write(String.valueOf(task.getId()));
+            writer.write(',');
+            writeCsvField(writer, task.getTitle());
+            writer.write(',');
+            writeCsvField(writer, task.getDescription());
+            writer.write(',');
+            writer.write(task.getStatus().name());
+            writer.write(',');
+            writer.write(task.getPriority().name());
+            writer.write(',');
+            writeCsvDate(writer, task.getDueDate());
+            writer.write(',');
+            writeCsvDate(writer, task.getCreatedAt());
+            writer.write(',');
+            writeCsvDate(writer, task.getUpdatedAt());
+            writer.write('\n');
+            entityManager.detach(task);
+            if (++written % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+    
+    // Campo CSV secondo RFC 4180: virgolette solo se servono, con raddoppio di quelle interne
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+    
+    private static void writeCsvDate(Writer writer, LocalDateTime value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.constants.TaskConstants;
+import com.example.taskmanager.dto.TaskBatchItemResult;
+import com.example.taskmanager.dto.TaskBatchResult;
+import com.example.taskmanager.dto.TaskIngestReceipt;
+import com.example.taskmanager.dto.TaskRequest;
+import com.example.taskmanager.exception.IngestQueueFullException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Inserimento asincrono delle task (taskmanager.ingest.enabled): le richieste entrano in una coda limitata
+// e un solo consumer le salva a gruppi con TaskBatchService, una transazione per gruppo invece che per task.
+// Mentre un gruppo è in commit il successivo si riempie, quindi i gruppi crescono da soli con il carico.
+// Con la coda piena la richiesta è rifiutata (429); allo shutdown la coda viene svuotata dopo che il
+// server web ha smesso di accettare richieste e prima della chiusura del DataSource.
+@Service
+@ConditionalOnProperty(prefix = "taskmanager.ingest", name = "enabled", havingValue = "true")
+public class TaskIngestService implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(TaskIngestService.class);
+    
+    private final TaskBatchService taskBatchService;
+    private final BlockingQueue<QueuedTask> queue;
+    private final Cache<String, TaskIngestReceipt> receipts;
+    private final int maxBatch;
+    private final Duration shutdownTimeout;
+    private final Counter rejected;
+    private final DistributionSummary batchSize;
+    
+    private volatile boolean running;
+    private Thread consumer;
+    
+    public TaskIngestService(TaskBatchService taskBatchService, MeterRegistry meterRegistry,
+                             @Value("${taskmanager.ingest.capacity:10000}") int capacity,
+                             @Value("${taskmanager.ingest.max-batch:500}") int maxBatch,
+                             @Value("${taskmanager.ingest.receipt-ttl:15m}") Duration receiptTtl,
+                             @Value("${taskmanager.ingest.shutdown-timeout:20s}") Duration shutdownTimeout) {
+        this.taskBatchService = taskBatchService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.receipts = Caffeine.newBuilder()
+                .expireAfterWrite(receiptTtl)
+                .maximumSize(capacity * 10L)
+                .build();
+        this.maxBatch = maxBatch;
+        this.shutdownTimeout = shutdownTimeout;
+        Gauge.builder("taskmanager.ingest.queued", queue, BlockingQueue::size)
+                .description("Task in coda per l'inserimento asincrono")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("taskmanager.ingest.rejected")
+                .description("Richieste rifiutate con coda piena")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("taskmanager.ingest.batch.size")
+                .description("Task salvate per transazione")
+                .register(meterRegistry);
+    }
+    
+    // Mette in coda la task e restituisce la ricevuta con il ticket; IngestQueueFullException se la coda è piena
+    public TaskIngestReceipt enqueue(TaskRequest taskRequest) {
+        if (!running) {
+            throw new IngestQueueFullException(TaskConstants.INGEST_QUEUE_FULL_MESSAGE);
+        }
+        TaskIngestReceipt receipt = TaskIngestReceipt.queued(UUID.randomUUID().toString());
+        receipts.put(receipt.getTicket(), receipt);
+        if (!queue.offer(new QueuedTask(receipt.getTicket(), taskRequest))) {
+            receipts.invalidate(receipt.getTicket());
+            rejected.increment();
+            throw new IngestQueueFullException(TaskConstants.INGEST_QUEUE_FULL_MESSAGE);
+        }
+        return receipt;
+    }
+    
+    // Stato corrente del ticket (null se sconosciuto o scaduto)
+    public TaskIngestReceipt getReceipt(String ticket) {
+        return receipts.getIfPresent(ticket);
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        consumer = new Thread(this::consume, "task-ingest");
+        consumer.start();
+    }
+    
+    // Smette di accettare richieste e attende che il consumer salvi quelle già in coda
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            consumer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Shutdown dell'inserimento asincrono: {} task in coda non salvate", queue.size());
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Dopo il graceful shutdown del server web (fase più bassa = fermato dopo)
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+    
+    private void consume() {
+        List<QueuedTask> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedTask first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                save(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Salvataggio di {} task in coda fallito", batch.size(), e);
+                for (QueuedTask task : batch) {
+                    receipts.put(task.ticket, new TaskIngestReceipt(task.ticket, TaskIngestReceipt.State.FAILED,
+                            null, TaskConstants.TASK_CREATE_ERROR + e.getMessage()));
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void save(List<QueuedTask> batch) {
+        List<TaskRequest> requests = new ArrayList<>(batch.size());
+        for (QueuedTask task : batch) {
+            requests.add(task.request);
+        }
+        TaskBatchResult result = taskBatchService.createTasks(requests);
+        batchSize.record(batch.size());
+        
+        for (TaskBatchItemResult item : result.getItems()) {
+            String ticket = batch.get(item.getIndex()).ticket;
+            receipts.put(ticket, new TaskIngestReceipt(ticket, toState(item.getOutcome()), item.getId(), item.getError()));
+        }
+    }
+    
+    private static TaskIngestReceipt.State toState(TaskBatchItemResult.Outcome outcome) {
+        return switch (outcome) {
+            case CREATED -> TaskIngestReceipt.State.CREATED;
+            case INVALID -> TaskIngestReceipt.State.INVALID;
+            default -> TaskIngestReceipt.State.FAILED;
+        };
+    }
+    
+    private static final class QueuedTask {
+        
+        final String ticket;
+        final TaskRequest request;
+        
+        QueuedTask(String ticket, TaskRequest request) {
+            this.ticket = ticket;
+            this.request = request;
+        }
+    }
+}
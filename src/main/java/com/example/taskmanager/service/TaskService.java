@@ -1,28 +1,76 @@
 package com.example.taskmanager.service;
 
+import com.example.taskmanager.config.DatabaseFeatures;
+import com.example.taskmanager.config.ReplicaRoutingDataSource;
+import com.example.taskmanager.constants.TaskConstants;
+import com.example.taskmanager.dto.TaskCursor;
+import com.example.taskmanager.dto.TaskCursorPage;
+import com.example.taskmanager.dto.TaskFingerprint;
 import com.example.taskmanager.dto.TaskRequest;
 import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.dto.TaskSuggestion;
+import com.example.taskmanager.dto.TotalCount;
 import com.example.taskmanager.entity.Task;
 import com.example.taskmanager.entity.TaskPriority;
 import com.example.taskmanager.entity.TaskStatus;
+import com.example.taskmanager.event.TaskChangedEvent;
 import com.example.taskmanager.exception.TaskNotFoundException;
+import com.example.taskmanager.repository.ArchivedTaskRepository;
 import com.example.taskmanager.repository.TaskRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Optional;
 
+// Ogni metodo pubblico è misurato dal timer taskmanager.service (tag class e method).
+// Le letture usano solo la tabella tasks; le varianti con includeArchived leggono anche tasks_archive
 @Service
+@Timed(TaskConstants.SERVICE_TIMER)
 public class TaskService {
     
     private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TaskStatsStore taskStatsStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatabaseFeatures databaseFeatures;
+    private final TaskSuggestIndex taskSuggestIndex;
+    private final TaskDueDateIndex taskDueDateIndex;
+    private final TaskCountEstimator taskCountEstimator;
+    private final TaskDataVersion taskDataVersion;
+    private final TaskCacheStore taskCache;
+    private final SingleFlight<Long, TaskResponse> taskLoads;
     
-    public TaskService(TaskRepository taskRepository) {
+    public TaskService(TaskRepository taskRepository, ArchivedTaskRepository archivedTaskRepository,
+                       TaskStatsStore taskStatsStore, ApplicationEventPublisher eventPublisher,
+                       DatabaseFeatures databaseFeatures, TaskSuggestIndex taskSuggestIndex,
+                       TaskDueDateIndex taskDueDateIndex, TaskCountEstimator taskCountEstimator,
+                       TaskDataVersion taskDataVersion, TaskCacheStore taskCache,
+                       SingleFlight<Long, TaskResponse> taskLoads) {
         this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.taskStatsStore = taskStatsStore;
+        this.eventPublisher = eventPublisher;
+        this.databaseFeatures = databaseFeatures;
+        this.taskSuggestIndex = taskSuggestIndex;
+        this.taskDueDateIndex = taskDueDateIndex;
+        this.taskCountEstimator = taskCountEstimator;
+        this.taskDataVersion = taskDataVersion;
+        this.taskCache = taskCache;
+        this.taskLoads = taskLoads;
     }
     
     // Crea una nuova task
@@ -32,38 +80,99 @@ public class TaskService {
             throw new IllegalArgumentException("TaskRequest non può essere null");
         }
         
-        Task task = new Task();
-        task.setTitle(taskRequest.getTitle());
-        task.setDescription(taskRequest.getDescription());
-        task.setStatus(taskRequest.getStatus() != null ? taskRequest.getStatus() : TaskStatus.PENDING);
-        task.setPriority(taskRequest.getPriority() != null ? taskRequest.getPriority() : TaskPriority.MEDIUM);
-        task.setDueDate(taskRequest.getDueDate());
+        Task task = toNewTask(taskRequest);
         
-        Task savedTask = taskRepository.save(task);
-        return new TaskResponse(savedTask);
+        // Flush subito: con la sequenza pooled save() non esegue l'INSERT, e createdAt/updatedAt
+        // restano null finché Hibernate non scrive la riga
+        Task savedTask = taskRepository.saveAndFlush(task);
+        TaskResponse response = new TaskResponse(savedTask);
+        eventPublisher.publishEvent(TaskChangedEvent.created(response));
+        return response;
     }
     
     // Ottieni tutte le task con paginazione e ordinamento personalizzato
     @Transactional(readOnly = true)
     public Page<TaskResponse> getAllTasks(Pageable pageable) {
-        Page<Task> tasks = taskRepository.findAllWithCustomOrder(pageable);
-        return tasks.map(TaskResponse::new);
+        return taskRepository.findAllWithCustomOrder(pageable);
+    }
+    
+    // Come getAllTasks(Pageable), con le task archiviate inserite nello stesso ordinamento
+    @Transactional(readOnly = true)
+    public Page<TaskResponse> getAllTasks(Pageable pageable, boolean includeArchived) {
+        if (!includeArchived) {
+            return getAllTasks(pageable);
+        }
+        return taskRepository.findAllWithCustomOrderIncludingArchived(unsorted(pageable)).map(TaskResponse::new);
+    }
+    
+    // Come getAllTasks(Pageable, boolean) con il totale scelto dal chiamante: NONE restituisce una Slice
+    // (size + 1 righe, nessun COUNT), APPROXIMATE una Page con il totale di TaskCountEstimator
+    @Transactional(readOnly = true)
+    public Slice<TaskResponse> getAllTasks(Pageable pageable, boolean includeArchived, TotalCount total) {
+        if (total == TotalCount.EXACT) {
+            return getAllTasks(pageable, includeArchived);
+        }
+        Slice<TaskResponse> slice = includeArchived
+                ? taskRepository.findSliceWithCustomOrderIncludingArchived(unsorted(pageable)).map(TaskResponse::new)
+                : taskRepository.findSliceWithCustomOrder(pageable);
+        return total == TotalCount.NONE ? slice : withTotal(slice, taskCountEstimator.countAll(includeArchived));
+    }
+    
+    // Ottieni le task con paginazione a cursore: il costo di ogni pagina non dipende dalla sua posizione
+    @Transactional(readOnly = true)
+    public TaskCursorPage getTasksAfterCursor(String cursor, int size) {
+        if (size <= 0 || size > TaskConstants.MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("La dimensione della pagina deve essere tra 1 e "
+                    + TaskConstants.MAX_CURSOR_PAGE_SIZE);
+        }
+        
+        // Legge una riga in più per sapere se esiste una pagina successiva senza COUNT
+        List<TaskResponse> tasks;
+        if (cursor == null || cursor.isBlank()) {
+            tasks = taskRepository.findFirstWithCustomOrder(Limit.of(size + 1));
+        } else {
+            TaskCursor position = TaskCursor.decode(cursor);
+            tasks = taskRepository.findNextWithCustomOrder(position.getStatusRank(),
+                    position.getPriorityRank(), -position.getId(), Limit.of(size + 1));
+        }
+        
+        boolean hasNext = tasks.size() > size;
+        List<TaskResponse> content = hasNext ? tasks.subList(0, size) : tasks;
+        String nextCursor = hasNext ? TaskCursor.of(content.get(size - 1)).encode() : null;
+        return new TaskCursorPage(content, size, hasNext, nextCursor);
     }
     
     // Ottieni tutte le task senza paginazione
     @Transactional(readOnly = true)
     public List<TaskResponse> getAllTasks() {
-        List<Task> tasks = taskRepository.findAll();
-        return tasks.stream()
-                .map(TaskResponse::new)
-                .collect(Collectors.toList());
+        return taskRepository.findAllResponses();
     }
     
-    // Ottieni task per ID
-    @Transactional(readOnly = true)
+    // Ottieni task per ID (in cache; invalidata da TaskCacheInvalidator a ogni modifica).
+    // Letta dal primario: da una replica in ritardo rimetterebbe in cache la versione appena invalidata.
+    // I miss concorrenti sulla stessa task condividono una sola query (taskLoads); senza @Transactional
+    // chi attende il risultato non occupa una connessione, la query ha la transazione readOnly del repository.
+    // Il risultato entra in cache solo se la task non è stata invalidata durante la query (vedi TaskCacheStore)
     public TaskResponse getTaskById(Long id) {
-        return taskRepository.findById(id)
-                .map(TaskResponse::new)
+        if (id == null) {
+            return loadTask(id);
+        }
+        TaskResponse cached = cachedTask(id);
+        if (cached != null) {
+            return cached;
+        }
+        return taskLoads.execute(id, () -> taskCache.load(id, () -> loadTask(id)));
+    }
+    
+    // Ottieni task per ID cercandola anche nell'archivio (le task archiviate non passano dalla cache)
+    @Transactional(readOnly = true)
+    public TaskResponse getTaskByIdIncludingArchived(Long id) {
+        TaskResponse cached = cachedTask(id);
+        if (cached != null) {
+            return cached;
+        }
+        return taskRepository.findResponseById(id)
+                .or(() -> archivedTaskRepository.findResponseById(id))
                 .orElseThrow(() -> new TaskNotFoundException("Task con ID " + id + " non trovata"));
     }
     
@@ -79,60 +188,74 @@ public class TaskService {
         
         Task existingTask = taskRepository.findById(id)
                 .orElseThrow(() -> new TaskNotFoundException("Task con ID " + id + " non trovata"));
+        TaskStatus previousStatus = existingTask.getStatus();
         
-        existingTask.setTitle(taskRequest.getTitle());
-        existingTask.setDescription(taskRequest.getDescription());
-        if (taskRequest.getStatus() != null) {
-            existingTask.setStatus(taskRequest.getStatus());
-        }
-        if (taskRequest.getPriority() != null) {
-            existingTask.setPriority(taskRequest.getPriority());
-        }
-        existingTask.setDueDate(taskRequest.getDueDate());
+        applyRequest(existingTask, taskRequest);
         
-        Task updatedTask = taskRepository.save(existingTask);
-        return new TaskResponse(updatedTask);
+        // Flush subito: versione e updatedAt della risposta sono quelli scritti sul database
+        Task updatedTask = taskRepository.saveAndFlush(existingTask);
+        TaskResponse response = new TaskResponse(updatedTask);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(previousStatus, response));
+        return response;
     }
     
-    // Elimina una task
+    // Elimina una task: con lo snapshot in cache basta un DELETE condizionato alla versione, su PostgreSQL
+    // un DELETE ... RETURNING dello status (serve alle statistiche); altrove lettura dello status + DELETE mirato
     @Transactional
     public void deleteTask(Long id) {
         if (id == null) {
             throw new IllegalArgumentException("ID non può essere null");
         }
         
-        if (!taskRepository.existsById(id)) {
-            throw new TaskNotFoundException("Task con ID " + id + " non trovata");
+        TaskResponse snapshot = cachedTask(id);
+        if (snapshot != null && taskRepository.deleteByIdIfVersion(id, snapshot.getVersion()) == 1) {
+            eventPublisher.publishEvent(TaskChangedEvent.deleted(id, snapshot.getStatus()));
+            return;
         }
         
-        taskRepository.deleteById(id);
+        if (databaseFeatures.isPostgres()) {
+            TaskStatus previousStatus = taskRepository.deleteReturningStatus(id)
+                    .orElseThrow(() -> new TaskNotFoundException("Task con ID " + id + " non trovata"));
+            eventPublisher.publishEvent(TaskChangedEvent.deleted(id, previousStatus));
+            return;
+        }
+        
+        TaskStatus previousStatus = taskRepository.findStatusById(id)
+                .orElseThrow(() -> new TaskNotFoundException("Task con ID " + id + " non trovata"));
+        if (taskRepository.deleteTaskById(id) == 0) {
+            throw new TaskNotFoundException("Task con ID " + id + " non trovata");
+        }
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(id, previousStatus));
     }
     
     // Ottieni task per status
     @Transactional(readOnly = true)
     public List<TaskResponse> getTasksByStatus(TaskStatus status) {
-        List<Task> tasks = taskRepository.findByStatus(status);
-        return tasks.stream()
-                .map(TaskResponse::new)
-                .collect(Collectors.toList());
+        return taskRepository.findResponsesByStatus(status);
+    }
+    
+    // Ottieni task per status, comprese quelle archiviate (in archivio ci sono solo COMPLETED e CANCELLED)
+    @Transactional(readOnly = true)
+    public List<TaskResponse> getTasksByStatus(TaskStatus status, boolean includeArchived) {
+        if (!includeArchived || !isArchivable(status)) {
+            return getTasksByStatus(status);
+        }
+        return concat(taskRepository.findResponsesByStatus(status), archivedTaskRepository.findResponsesByStatus(status));
     }
     
     // Ottieni task per priority
     @Transactional(readOnly = true)
     public List<TaskResponse> getTasksByPriority(TaskPriority priority) {
-        List<Task> tasks = taskRepository.findByPriority(priority);
-        return tasks.stream()
-                .map(TaskResponse::new)
-                .collect(Collectors.toList());
+        return taskRepository.findResponsesByPriority(priority);
     }
     
-    // Ottieni task scadute
-    @Transactional(readOnly = true)
+    // Ottieni task scadute (indice in memoria, nessuna query; dal database solo prima che l'indice sia pronto)
     public List<TaskResponse> getOverdueTasks() {
-        List<Task> tasks = taskRepository.findOverdueTasks(LocalDateTime.now());
-        return tasks.stream()
-                .map(TaskResponse::new)
-                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        if (taskDueDateIndex.isReady()) {
+            return taskDueDateIndex.overdue(now);
+        }
+        return taskRepository.findOverdueResponses(now);
     }
     
     // Cerca task per titolo
@@ -142,10 +265,23 @@ public class TaskService {
             return List.of();
         }
         
-        List<Task> tasks = taskRepository.findByTitleContainingIgnoreCase(title.trim());
-        return tasks.stream()
-                .map(TaskResponse::new)
-                .collect(Collectors.toList());
+        return taskRepository.findResponsesByTitleContaining(title.trim());
+    }
+    
+    // Cerca task per titolo, comprese quelle archiviate
+    @Transactional(readOnly = true)
+    public List<TaskResponse> searchTasksByTitle(String title, boolean includeArchived) {
+        if (!includeArchived || title == null || title.trim().isEmpty()) {
+            return searchTasksByTitle(title);
+        }
+        return concat(taskRepository.findResponsesByTitleContaining(title.trim()),
+                archivedTaskRepository.findResponsesByTitleContaining(title.trim()));
+    }
+    
+    // Suggerimenti di titolo per l'autocompletamento (indice in memoria, nessuna query)
+    public List<TaskSuggestion> suggestTasks(String query, int limit) {
+        int boundedLimit = Math.min(Math.max(limit, 1), TaskConstants.MAX_SUGGEST_LIMIT);
+        return taskSuggestIndex.suggest(query, boundedLimit);
     }
     
     // Cerca task con filtri avanzati
@@ -159,15 +295,56 @@ public class TaskService {
         // Normalizza il titolo se presente
         String normalizedTitle = (title != null && !title.trim().isEmpty()) ? title.trim() : null;
         
-        // Converti gli enum in stringhe per la query nativa
-        String statusStr = (status != null) ? status.name() : null;
-        String priorityStr = (priority != null) ? priority.name() : null;
+        return taskRepository.findTasksWithFilters(normalizedTitle, status, priority, pageable);
+    }
+    
+    // Ricerca con filtri avanzati con il totale scelto dal chiamante (vedi getAllTasks con TotalCount):
+    // con APPROXIMATE il COUNT della ricerca è eseguito una volta e riusato per tutte le sue pagine
+    @Transactional(readOnly = true)
+    public Slice<TaskResponse> searchTasksWithFilters(String title, TaskStatus status, TaskPriority priority,
+                                                     Pageable pageable, TotalCount total) {
+        if (total == TotalCount.EXACT) {
+            return searchTasksWithFilters(title, status, priority, pageable);
+        }
+        if (pageable == null) {
+            throw new IllegalArgumentException("Pageable non può essere null");
+        }
         
-        Page<Task> tasks = taskRepository.findTasksWithFilters(normalizedTitle, statusStr, priorityStr, pageable);
+        String normalizedTitle = (title != null && !title.trim().isEmpty()) ? title.trim() : null;
+        Slice<TaskResponse> slice = taskRepository.findSliceWithFilters(normalizedTitle, status, priority, pageable);
+        if (total == TotalCount.NONE) {
+            return slice;
+        }
+        // LIKE non distingue maiuscole e minuscole: la stessa ricerca condivide il conteggio
+        String key = "filters|" + (normalizedTitle != null ? normalizedTitle.toLowerCase(Locale.ROOT) : "")
+                + "|" + status + "|" + priority;
+        return withTotal(slice, taskCountEstimator.count(key,
+                () -> taskRepository.countWithFilters(normalizedTitle, status, priority)));
+    }
+    
+    // Ricerca full-text su titolo e descrizione, risultati ordinati per rilevanza
+    @Transactional(readOnly = true)
+    public Page<TaskResponse> searchTasksFullText(String query, Pageable pageable) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Il testo da cercare non può essere vuoto");
+        }
+        if (pageable == null) {
+            throw new IllegalArgumentException("Pageable non può essere null");
+        }
+        
+        // L'ordinamento è dato dalla rilevanza: un eventuale Sort verrebbe accodato alla query nativa
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        String normalizedQuery = query.trim();
+        
+        Page<Task> tasks = databaseFeatures.isPostgres()
+                ? taskRepository.searchFullTextPostgres(normalizedQuery, unsorted)
+                : taskRepository.searchFullTextFallback(normalizedQuery, unsorted);
         return tasks.map(TaskResponse::new);
     }
     
-    // Aggiorna status di una task
+    // Aggiorna status di una task senza caricare l'entità. Con lo snapshot in cache è un solo UPDATE condizionato
+    // alla versione; altrimenti su PostgreSQL un solo UPDATE ... RETURNING, sugli altri database lettura + UPDATE.
+    // Lo status invariato (nessuna scrittura) è verificato sempre sulla riga, mai sullo snapshot in cache
     @Transactional
     public TaskResponse updateTaskStatus(Long id, TaskStatus status) {
         if (id == null) {
@@ -177,24 +354,156 @@ public class TaskService {
             throw new IllegalArgumentException("Status non può essere null");
         }
         
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new TaskNotFoundException("Task con ID " + id + " non trovata"));
+        // Valore scritto così com'è in updated_at (nessun trigger, vedi V10), alla precisione della colonna
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        TaskResponse cached = cachedTask(id);
+        if (cached != null && cached.getStatus() != status
+                && taskRepository.updateStatusIfVersion(id, cached.getVersion(), status, status.getSortRank(), now) == 1) {
+            return statusChanged(cached, status, now);
+        }
         
-        task.setStatus(status);
-        Task updatedTask = taskRepository.save(task);
-        return new TaskResponse(updatedTask);
+        if (databaseFeatures.isPostgres()) {
+            Optional<TaskRepository.StatusChange> change =
+                    taskRepository.updateStatusReturning(id, status.name(), status.getSortRank(), now);
+            if (change.isPresent()) {
+                TaskRepository.StatusChange row = change.get();
+                TaskResponse response = new TaskResponse(row.getId(), row.getTitle(), row.getDescription(),
+                        row.getStatus(), row.getPriority(), row.getDueDate(), row.getCreatedAt(), row.getUpdatedAt(),
+                        row.getVersion());
+                eventPublisher.publishEvent(TaskChangedEvent.statusChanged(row.getPreviousStatus(), response));
+                return response;
+            }
+            // Nessuna riga: task inesistente (404) o già con lo status richiesto
+            return findSnapshot(id);
+        }
+        
+        // Snapshot superato da un'altra modifica: rilegge e riprova una volta
+        for (int attempt = 0; attempt < 2; attempt++) {
+            TaskResponse current = findSnapshot(id);
+            if (current.getStatus() == status) {
+                return current;
+            }
+            if (taskRepository.updateStatusIfVersion(id, current.getVersion(), status, status.getSortRank(), now) == 1) {
+                return statusChanged(current, status, now);
+            }
+        }
+        throw new ObjectOptimisticLockingFailureException(Task.class, id);
+    }
+    
+    // Risposta e evento di un cambio status applicato con updateStatusIfVersion a partire da snapshot
+    private TaskResponse statusChanged(TaskResponse snapshot, TaskStatus status, LocalDateTime now) {
+        TaskResponse response = new TaskResponse(snapshot.getId(), snapshot.getTitle(), snapshot.getDescription(),
+                status, snapshot.getPriority(), snapshot.getDueDate(), snapshot.getCreatedAt(), now,
+                snapshot.getVersion() + 1);
+        eventPublisher.publishEvent(TaskChangedEvent.statusChanged(snapshot.getStatus(), response));
+        return response;
+    }
+    
+    private TaskResponse findSnapshot(Long id) {
+        return taskRepository.findResponseById(id)
+                .orElseThrow(() -> new TaskNotFoundException("Task con ID " + id + " non trovata"));
     }
     
-    // Ottieni statistiche
+    // Validatori di una task per le GET condizionali: dalla cache se presente, altrimenti solo version e updated_at
+    // dal primario. La cache non restituisce snapshot di task con una modifica in corso di commit o già confermata
+    // ma non ancora invalidata (vedi TaskCacheStore), e una replica in ritardo darebbe la versione precedente:
+    // in entrambi i casi un If-None-Match con l'ETag vecchio riceverebbe un 304 dopo il commit della modifica
+    public TaskFingerprint getTaskFingerprint(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("ID non può essere null");
+        }
+        TaskResponse cached = cachedTask(id);
+        if (cached != null) {
+            return TaskFingerprint.of(cached);
+        }
+        TaskRepository.TaskVersion version = ReplicaRoutingDataSource.primary(() -> taskRepository.findVersionById(id))
+                .orElseThrow(() -> new TaskNotFoundException("Task con ID " + id + " non trovata"));
+        return TaskFingerprint.ofTask(id, version.getVersion(), version.getUpdatedAt());
+    }
+    
+    // Validatore dell'insieme di task per le liste, senza COUNT: max(updated_at) dall'indice, che vede
+    // inserimenti e modifiche di ogni istanza, più totale delle statistiche in memoria e versione dei dati,
+    // che vedono eliminazioni e archiviazioni di questa istanza. Quelle fatte da altre istanze cambiano il totale
+    // alla riconciliazione delle statistiche (o alla prima scrittura). Vale anche per le liste con includeArchived:
+    // uno spostamento in archivio cambia la versione dei dati
     @Transactional(readOnly = true)
+    public TaskFingerprint getTaskSetFingerprint() {
+        // Versione e totale letti prima di max(updated_at): un ETag mai più recente dei dati
+        long dataVersion = taskDataVersion.current();
+        long statsTotal = taskStatsStore.getStats().getTotalTasks();
+        return TaskFingerprint.ofTaskSetVersion(statsTotal, dataVersion, taskRepository.findLastUpdatedAt());
+    }
+    
+    // L'ordinamento delle query native è nel testo della query: un eventuale Sort verrebbe accodato
+    private static Pageable unsorted(Pageable pageable) {
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+    }
+    
+    // Page con un totale stimato, corretto con quanto si sa dalla Slice: almeno le righe viste più una
+    // se esiste una pagina successiva, esatto sull'ultima pagina
+    private static Page<TaskResponse> withTotal(Slice<TaskResponse> slice, long estimate) {
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        long total;
+        if (slice.hasNext()) {
+            total = Math.max(estimate, seen + 1);
+        } else if (slice.hasContent() || slice.getPageable().getOffset() == 0) {
+            total = seen;
+        } else {
+            total = estimate;
+        }
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+    
+    // Status delle task che TaskArchiver sposta in tasks_archive
+    static boolean isArchivable(TaskStatus status) {
+        return status == TaskStatus.COMPLETED || status == TaskStatus.CANCELLED;
+    }
+    
+    private static List<TaskResponse> concat(List<TaskResponse> active, List<TaskResponse> archived) {
+        List<TaskResponse> all = new ArrayList<>(active.size() + archived.size());
+        all.addAll(active);
+        all.addAll(archived);
+        return all;
+    }
+    
+    // Task attiva dal primario (vedi getTaskById)
+    private TaskResponse loadTask(Long id) {
+        return ReplicaRoutingDataSource.primary(() -> taskRepository.findResponseById(id))
+                .orElseThrow(() -> new TaskNotFoundException("Task con ID " + id + " non trovata"));
+    }
+    
+    // Snapshot della task già in cache, senza caricarla (null se assente)
+    private TaskResponse cachedTask(Long id) {
+        return taskCache.get(id);
+    }
+    
+    // Ottieni statistiche (contatori in memoria, nessuna query)
     public TaskStats getTaskStats() {
-        long totalTasks = taskRepository.count();
-        long pendingTasks = taskRepository.countByStatus(TaskStatus.PENDING);
-        long inProgressTasks = taskRepository.countByStatus(TaskStatus.IN_PROGRESS);
-        long completedTasks = taskRepository.countByStatus(TaskStatus.COMPLETED);
-        long cancelledTasks = taskRepository.countByStatus(TaskStatus.CANCELLED);
-        
-        return new TaskStats(totalTasks, pendingTasks, inProgressTasks, completedTasks, cancelledTasks);
+        return taskStatsStore.getStats();
+    }
+    
+    // Nuova entità a partire dalla richiesta, con status e priorità di default (usato anche dalle operazioni bulk)
+    static Task toNewTask(TaskRequest taskRequest) {
+        Task task = new Task();
+        task.setTitle(taskRequest.getTitle());
+        task.setDescription(taskRequest.getDescription());
+        task.setStatus(taskRequest.getStatus() != null ? taskRequest.getStatus() : TaskStatus.PENDING);
+        task.setPriority(taskRequest.getPriority() != null ? taskRequest.getPriority() : TaskPriority.MEDIUM);
+        task.setDueDate(taskRequest.getDueDate());
+        return task;
+    }
+    
+    // Applica una richiesta di modifica: status e priorità restano invariati se non indicati
+    static void applyRequest(Task task, TaskRequest taskRequest) {
+        task.setTitle(taskRequest.getTitle());
+        task.setDescription(taskRequest.getDescription());
+        if (taskRequest.getStatus() != null) {
+            task.setStatus(taskRequest.getStatus());
+        }
+        if (taskRequest.getPriority() != null) {
+            task.setPriority(taskRequest.getPriority());
+        }
+        task.setDueDate(taskRequest.getDueDate());
     }
     
     // Classe interna per le statistiche
@@ -0,0 +1,184 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.config.ReplicaRoutingDataSource;
+import com.example.taskmanager.entity.TaskStatus;
+import com.example.taskmanager.event.TaskChangedEvent;
+import com.example.taskmanager.repository.ArchivedTaskRepository;
+import com.example.taskmanager.repository.TaskRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Contatori delle task per status mantenuti in memoria: le letture non toccano il database.
+// Caricati con una query aggregata all'avvio, aggiornati dagli eventi di TaskService dopo il commit
+// e riallineati periodicamente per correggere eventuali derive (es. modifiche fatte fuori dall'app).
+// Contano anche le task archiviate (tasks_archive), così lo spostamento in archivio non cambia i totali:
+// tra una riconciliazione e l'altra le righe dell'archivio arrivano con gli eventi ARCHIVED, e la riconciliazione
+// riconta l'archivio solo una volta ogni archive-recount-every giri (lo storico non si paga a ogni giro).
+// Il riconteggio corregge gli spostamenti fatti da altre istanze, a mano o con eventi persi.
+@Component
+public class TaskStatsStore {
+    
+    private static final Logger log = LoggerFactory.getLogger(TaskStatsStore.class);
+    
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final AtomicReference<TaskService.TaskStats> current = new AtomicReference<>();
+    // Task in archivio per status (mappa immutabile sostituita a ogni evento ARCHIVED; null finché non contate)
+    private final AtomicReference<Map<TaskStatus, Long>> archived = new AtomicReference<>();
+    private final SingleFlight<String, TaskService.TaskStats> loads;
+    private final int archiveRecountEvery;
+    private final AtomicLong reconciles = new AtomicLong();
+    
+    public TaskStatsStore(TaskRepository taskRepository, ArchivedTaskRepository archivedTaskRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${taskmanager.stats.archive-recount-every:12}") int archiveRecountEvery) {
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.loads = new SingleFlight<>("stats", meterRegistry);
+        this.archiveRecountEvery = Math.max(archiveRecountEvery, 1);
+    }
+    
+    // Statistiche correnti in O(1); carica dal database solo se la cache non è ancora pronta.
+    // Le richieste che arrivano prima del caricamento (es. subito dopo un deploy) condividono una sola query
+    public TaskService.TaskStats getStats() {
+        TaskService.TaskStats stats = current.get();
+        return stats != null ? stats : load();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        load();
+    }
+    
+    @Scheduled(fixedDelayString = "${taskmanager.stats.reconcile-interval:PT5M}",
+               initialDelayString = "${taskmanager.stats.reconcile-interval:PT5M}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+    
+    // Ricarica i contatori dal database; se nel frattempo è arrivata una scrittura
+    // mantiene i valori incrementali e riprova al giro successivo
+    public TaskService.TaskStats reconcile() {
+        TaskService.TaskStats before = current.get();
+        TaskService.TaskStats fresh = loadFromDatabase();
+        
+        if (current.compareAndSet(before, fresh)) {
+            if (before != null && !sameCounts(before, fresh)) {
+                log.info("Statistiche task riallineate: totale {} -> {}", before.getTotalTasks(), fresh.getTotalTasks());
+            }
+            return fresh;
+        }
+        log.debug("Riconciliazione statistiche saltata: scrittura concorrente");
+        return current.get();
+    }
+    
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED -> apply(null, event.getTask().getStatus());
+            case UPDATED, STATUS_CHANGED -> apply(event.getPreviousStatus(), event.getTask().getStatus());
+            case DELETED -> apply(event.getPreviousStatus(), null);
+            // I contatori comprendono l'archivio: spostare una task non li cambia, conta solo per le riconciliazioni
+            case ARCHIVED -> archived.updateAndGet(counts -> counts == null ? null
+                    : withArchived(counts, event.getPreviousStatus()));
+        }
+    }
+    
+    // Sposta una task da uno status all'altro (null = task creata o eliminata)
+    private void apply(TaskStatus from, TaskStatus to) {
+        if (from == to) {
+            return;
+        }
+        // Finché la cache non è caricata non c'è nulla da aggiornare: ci penserà il caricamento
+        current.updateAndGet(stats -> stats == null ? null : withDelta(stats, from, to));
+    }
+    
+    // Caricamento condiviso tra warm-up e letture a cache vuota
+    private TaskService.TaskStats load() {
+        return loads.execute("stats", this::reconcile);
+    }
+    
+    private TaskService.TaskStats loadFromDatabase() {
+        // Dal primario: i contatori vengono poi aggiornati dagli eventi delle scritture già confermate
+        Map<TaskStatus, Long> counts = toMap(ReplicaRoutingDataSource.primary(taskRepository::countGroupedByStatus));
+        // Archivio letto dopo tasks: una task spostata nel frattempo non resta fuori da entrambi i conteggi
+        // (salvo che il suo evento ARCHIVED arrivi dopo questa lettura; la riconciliazione successiva la recupera)
+        Map<TaskStatus, Long> archivedCounts = archived.get();
+        if (archivedCounts == null || reconciles.incrementAndGet() % archiveRecountEvery == 0) {
+            recountArchive(archivedCounts);
+            archivedCounts = archived.get();
+        }
+        archivedCounts.forEach((status, total) -> counts.merge(status, total, Long::sum));
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        return new TaskService.TaskStats(total,
+                counts.getOrDefault(TaskStatus.PENDING, 0L),
+                counts.getOrDefault(TaskStatus.IN_PROGRESS, 0L),
+                counts.getOrDefault(TaskStatus.COMPLETED, 0L),
+                counts.getOrDefault(TaskStatus.CANCELLED, 0L));
+    }
+    
+    // Sostituisce i conteggi dell'archivio letti prima della query; se nel frattempo è arrivato un evento ARCHIVED
+    // mantiene quelli incrementali (l'evento potrebbe essere già compreso nel conteggio) e riprova al giro successivo
+    private void recountArchive(Map<TaskStatus, Long> before) {
+        Map<TaskStatus, Long> fresh = Collections.unmodifiableMap(
+                toMap(ReplicaRoutingDataSource.primary(archivedTaskRepository::countGroupedByStatus)));
+        if (archived.compareAndSet(before, fresh)) {
+            if (before != null && !before.equals(fresh)) {
+                log.info("Task in archivio riallineate: {} -> {}", before, fresh);
+            }
+        } else {
+            log.debug("Riconteggio archivio saltato: spostamento concorrente");
+            reconciles.decrementAndGet();
+        }
+    }
+    
+    private static Map<TaskStatus, Long> toMap(List<TaskRepository.StatusCount> rows) {
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskRepository.StatusCount row : rows) {
+            counts.put(row.getStatus(), row.getTotal());
+        }
+        return counts;
+    }
+    
+    private static Map<TaskStatus, Long> withArchived(Map<TaskStatus, Long> counts, TaskStatus status) {
+        Map<TaskStatus, Long> updated = new EnumMap<>(TaskStatus.class);
+        updated.putAll(counts);
+        updated.merge(status, 1L, Long::sum);
+        return Collections.unmodifiableMap(updated);
+    }
+    
+    private static TaskService.TaskStats withDelta(TaskService.TaskStats stats, TaskStatus from, TaskStatus to) {
+        long total = stats.getTotalTasks() + (from == null ? 1 : 0) - (to == null ? 1 : 0);
+        return new TaskService.TaskStats(total,
+                stats.getPendingTasks() + delta(TaskStatus.PENDING, from, to),
+                stats.getInProgressTasks() + delta(TaskStatus.IN_PROGRESS, from, to),
+                stats.getCompletedTasks() + delta(TaskStatus.COMPLETED, from, to),
+                stats.getCancelledTasks() + delta(TaskStatus.CANCELLED, from, to));
+    }
+    
+    private static long delta(TaskStatus status, TaskStatus from, TaskStatus to) {
+        return (status == to ? 1 : 0) - (status == from ? 1 : 0);
+    }
+    
+    private static boolean sameCounts(TaskService.TaskStats a, TaskService.TaskStats b) {
+        return a.getTotalTasks() == b.getTotalTasks()
+                && a.getPendingTasks() == b.getPendingTasks()
+                && a.getInProgressTasks() == b.getInProgressTasks()
+                && a.getCompletedTasks() == b.getCompletedTasks()
+                && a.getCancelledTasks() == b.getCancelledTasks();
+    }
+}
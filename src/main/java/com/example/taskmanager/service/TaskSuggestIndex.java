@@ -0,0 +1,272 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.config.ReplicaRoutingDataSource;
+import com.example.taskmanager.dto.TaskSuggestion;
+import com.example.taskmanager.event.TaskChangedEvent;
+import com.example.taskmanager.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// Indice in memoria dei titoli per l'autocompletamento: mappe ordinate in cui una ricerca per
+// prefisso è un subMap (O(log n + k)). Costruito all'avvio e aggiornato dagli eventi di TaskService,
+// così i suggerimenti non interrogano mai il database. Ricostruito periodicamente come TaskDueDateIndex:
+// il nuovo indice sostituisce il vecchio solo a lettura completata, con gli eventi arrivati nel frattempo.
+@Component
+public class TaskSuggestIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(TaskSuggestIndex.class);
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    
+    private final TaskRepository taskRepository;
+    
+    private volatile Entries entries = new Entries();
+    // Eventi ricevuti durante una ricostruzione (null se nessuna è in corso), protetti dal lock dell'indice
+    private List<TaskChangedEvent> pending;
+    
+    private volatile boolean ready;
+    
+    public TaskSuggestIndex(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+    }
+    
+    @Scheduled(fixedDelayString = "${taskmanager.indexes.rebuild-interval:PT10M}",
+               initialDelayString = "${taskmanager.indexes.rebuild-interval:PT10M}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+    
+    // Legge dal database un indice nuovo senza bloccare suggerimenti e scritture, poi lo scambia con quello corrente
+    public void rebuild() {
+        synchronized (this) {
+            if (pending != null) {
+                log.debug("Ricostruzione indice suggerimenti già in corso");
+                return;
+            }
+            pending = new ArrayList<>();
+        }
+        long start = System.nanoTime();
+        Entries fresh = new Entries();
+        try {
+            for (TaskRepository.TaskTitle row : ReplicaRoutingDataSource.primary(taskRepository::findAllTitles)) {
+                fresh.put(row.getId(), row.getTitle());
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            // Gli eventi confermati durante la lettura possono mancare dal risultato: riapplicarli è innocuo
+            for (TaskChangedEvent event : pending) {
+                fresh.apply(event);
+            }
+            pending = null;
+            entries = fresh;
+        }
+        boolean first = !ready;
+        ready = true;
+        if (first) {
+            log.info("Indice suggerimenti costruito: {} task in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        } else {
+            log.debug("Indice suggerimenti ricostruito: {} task in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+    
+    // Le scritture sono serializzate: sono rare rispetto alle letture, che restano senza lock
+    @TransactionalEventListener
+    public synchronized void onTaskChanged(TaskChangedEvent event) {
+        entries.apply(event);
+        if (pending != null) {
+            pending.add(event);
+        }
+    }
+    
+    // Suggerimenti per il testo digitato: prima i titoli che iniziano con il testo,
+    // poi quelli in cui ogni parola digitata è l'inizio di una parola del titolo
+    public List<TaskSuggestion> suggest(String query, int limit) {
+        String normalized = normalize(query);
+        if (!ready || normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        
+        // Un solo indice per tutta la ricerca, anche se nel frattempo una ricostruzione lo sostituisce
+        Entries current = entries;
+        Set<Long> ids = new LinkedHashSet<>();
+        collectPrefix(current, current.titleIndex, normalized, ids, limit, null);
+        
+        if (ids.size() < limit) {
+            // Si scorre la parola digitata con meno candidati: le altre si verificano sulle parole già normalizzate
+            String[] words = normalized.split(" ");
+            String driver = mostSelective(current.wordIndex, words);
+            collectPrefix(current, current.wordIndex, driver, ids, limit, words.length > 1 ? words : null);
+        }
+        
+        List<TaskSuggestion> suggestions = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            String title = current.titles.get(id);
+            if (title != null) {
+                suggestions.add(new TaskSuggestion(id, title));
+            }
+        }
+        return suggestions;
+    }
+    
+    private static void collectPrefix(Entries current, NavigableMap<String, Set<Long>> index, String prefix,
+                                      Set<Long> ids, int limit, String[] requiredWords) {
+        for (Set<Long> matches : prefixRange(index, prefix).values()) {
+            for (Long id : matches) {
+                if (requiredWords == null || containsWordPrefixes(current.words.get(id), requiredWords)) {
+                    ids.add(id);
+                    if (ids.size() >= limit) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+    
+    // Parola digitata il cui intervallo di prefisso contiene meno id; il conteggio di ciascuna
+    // si interrompe appena supera il migliore trovato, così i prefissi molto comuni non vengono scorsi per intero
+    private static String mostSelective(NavigableMap<String, Set<Long>> index, String[] words) {
+        String best = words[0];
+        long bestCount = Long.MAX_VALUE;
+        for (String word : words) {
+            long count = 0;
+            for (Set<Long> matches : prefixRange(index, word).values()) {
+                count += matches.size();
+                if (count >= bestCount) {
+                    break;
+                }
+            }
+            if (count < bestCount) {
+                best = word;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+    
+    private static NavigableMap<String, Set<Long>> prefixRange(NavigableMap<String, Set<Long>> index, String prefix) {
+        return index.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+    
+    private static boolean containsWordPrefixes(String[] titleWords, String[] requiredWords) {
+        if (titleWords == null) {
+            return false;
+        }
+        for (String required : requiredWords) {
+            boolean found = false;
+            for (String word : titleWords) {
+                if (word.startsWith(required)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Contenuto dell'indice: sostituito per intero a ogni ricostruzione
+    private static final class Entries {
+        
+        // id → titolo originale, per comporre i suggerimenti e rimuovere le chiavi vecchie
+        private final Map<Long, String> titles = new ConcurrentHashMap<>();
+        // titolo normalizzato → id (completamento dell'intero titolo)
+        private final NavigableMap<String, Set<Long>> titleIndex = new ConcurrentSkipListMap<>();
+        // singola parola normalizzata → id (completamento di una parola qualsiasi del titolo)
+        private final NavigableMap<String, Set<Long>> wordIndex = new ConcurrentSkipListMap<>();
+        // id → parole del titolo normalizzato, per verificare le query di più parole senza rinormalizzare
+        private final Map<Long, String[]> words = new ConcurrentHashMap<>();
+        
+        void apply(TaskChangedEvent event) {
+            switch (event.getType()) {
+                case CREATED, UPDATED -> put(event.getTaskId(), event.getTask().getTitle());
+                case DELETED, ARCHIVED -> remove(event.getTaskId());
+                case STATUS_CHANGED -> { }
+            }
+        }
+        
+        void put(Long id, String title) {
+            remove(id);
+            if (title == null) {
+                return;
+            }
+            titles.put(id, title);
+            String normalized = normalize(title);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            String[] titleWords = normalized.split(" ");
+            words.put(id, titleWords);
+            titleIndex.computeIfAbsent(normalized, key -> ConcurrentHashMap.newKeySet()).add(id);
+            for (String word : titleWords) {
+                wordIndex.computeIfAbsent(word, key -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+        
+        void remove(Long id) {
+            String previous = titles.remove(id);
+            if (previous == null) {
+                return;
+            }
+            String[] previousWords = words.remove(id);
+            if (previousWords == null) {
+                return;
+            }
+            removeFrom(titleIndex, String.join(" ", previousWords), id);
+            for (String word : previousWords) {
+                removeFrom(wordIndex, word, id);
+            }
+        }
+        
+        int size() {
+            return titles.size();
+        }
+        
+        private static void removeFrom(NavigableMap<String, Set<Long>> index, String key, Long id) {
+            Set<Long> ids = index.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+    
+    // Minuscole, senza accenti e con un solo spazio tra le parole ("Attività  urgente!" → "attivita urgente")
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
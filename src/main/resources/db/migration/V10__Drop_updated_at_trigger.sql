@@ -0,0 +1,5 @@
+-- updated_at è scritto solo dall'applicazione (@UpdateTimestamp e UPDATE mirati dei cambi status).
+-- Il trigger di V1 lo sovrascriveva con CURRENT_TIMESTAMP (inizio della transazione): la risposta, l'evento
+-- SSE e il Last-Modified riportavano un valore diverso da quello salvato
+DROP TRIGGER IF EXISTS update_tasks_updated_at ON tasks;
+DROP FUNCTION IF EXISTS update_updated_at_column();
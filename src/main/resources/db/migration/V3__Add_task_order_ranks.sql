@@ -0,0 +1,30 @@
+-- Colonne di rank per l'ordinamento predefinito Stato → Priorità → ID
+-- Sostituiscono le espressioni CASE che impedivano l'uso di un indice
+ALTER TABLE tasks ADD COLUMN status_rank INTEGER;
+ALTER TABLE tasks ADD COLUMN priority_rank INTEGER;
+
+UPDATE tasks SET
+    status_rank = CASE status
+        WHEN 'IN_PROGRESS' THEN 1
+        WHEN 'PENDING' THEN 2
+        WHEN 'COMPLETED' THEN 3
+        WHEN 'CANCELLED' THEN 4
+        ELSE 5 END,
+    priority_rank = CASE priority
+        WHEN 'URGENT' THEN 1
+        WHEN 'HIGH' THEN 2
+        WHEN 'MEDIUM' THEN 3
+        WHEN 'LOW' THEN 4
+        ELSE 5 END;
+
+ALTER TABLE tasks ALTER COLUMN status_rank SET DEFAULT 2;
+ALTER TABLE tasks ALTER COLUMN status_rank SET NOT NULL;
+ALTER TABLE tasks ALTER COLUMN priority_rank SET DEFAULT 3;
+ALTER TABLE tasks ALTER COLUMN priority_rank SET NOT NULL;
+
+-- Indice composito nell'ordine esatto della lista: (-id) rende ascendente anche il tie-break
+-- su id DESC, così la paginazione a cursore può usare un confronto tra righe
+CREATE INDEX idx_tasks_custom_order ON tasks (status_rank, priority_rank, (-id));
+
+COMMENT ON COLUMN tasks.status_rank IS 'Posizione dello status nell ordinamento predefinito (1 = IN_PROGRESS)';
+COMMENT ON COLUMN tasks.priority_rank IS 'Posizione della priorità nell ordinamento predefinito (1 = URGENT)';
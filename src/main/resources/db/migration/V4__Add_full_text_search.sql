@@ -0,0 +1,20 @@
+-- Ricerca full-text e fuzzy su titolo e descrizione
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Vettore di ricerca pesato (titolo più rilevante della descrizione), mantenuto dal database
+ALTER TABLE tasks ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('italian', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('italian', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX idx_tasks_search_vector ON tasks USING gin(search_vector);
+
+-- Trigrammi sul titolo: servono sia la similarità (ricerca fuzzy) sia LOWER(title) LIKE '%...%'
+-- usato da findTasksWithFilters, che prima richiedeva una scansione completa
+CREATE INDEX idx_tasks_title_trgm ON tasks USING gin(lower(title) gin_trgm_ops);
+
+-- Sostituito da idx_tasks_search_vector: non era usato da nessuna query
+DROP INDEX IF EXISTS idx_tasks_title;
+
+COMMENT ON COLUMN tasks.search_vector IS 'Vettore full-text (italiano) di titolo e descrizione';
@@ -0,0 +1,4 @@
+-- Gli id delle task sono generati da Hibernate con optimizer pooled (allocationSize = 50):
+-- ogni nextval riserva un blocco di 50 id, necessario per il batching JDBC degli INSERT.
+-- Gli INSERT SQL diretti continuano a usare il default della colonna senza collisioni.
+ALTER SEQUENCE tasks_id_seq INCREMENT BY 50;
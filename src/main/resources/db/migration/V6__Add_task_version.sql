@@ -0,0 +1,4 @@
+-- Versione per il lock ottimistico: consente UPDATE/DELETE mirati senza rileggere la riga
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN tasks.version IS 'Versione della task per il lock ottimistico';
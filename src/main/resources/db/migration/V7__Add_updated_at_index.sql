@@ -0,0 +1,2 @@
+-- Impronta per ETag delle liste (max(updated_at) + count): il massimo diventa una lettura dell'indice
+CREATE INDEX idx_tasks_updated_at ON tasks (updated_at);
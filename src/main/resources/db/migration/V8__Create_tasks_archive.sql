@@ -0,0 +1,29 @@
+-- Archivio delle task concluse (COMPLETED, CANCELLED): TaskArchiver vi sposta le task non modificate
+-- da più di taskmanager.archive.after, così tasks contiene solo le task attive e quelle concluse da poco.
+-- Stesse colonne di tasks (senza search_vector) più il momento dello spostamento; l'id resta quello originale
+CREATE TABLE tasks_archive (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    status VARCHAR(20) NOT NULL,
+    priority VARCHAR(20) NOT NULL,
+    status_rank INTEGER NOT NULL,
+    priority_rank INTEGER NOT NULL,
+    due_date TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Le letture con includeArchived: per status, ricerca per titolo e lista nell'ordinamento predefinito
+CREATE INDEX idx_tasks_archive_status ON tasks_archive (status);
+CREATE INDEX idx_tasks_archive_title_trgm ON tasks_archive USING gin(lower(title) gin_trgm_ops);
+CREATE INDEX idx_tasks_archive_custom_order ON tasks_archive (status_rank, priority_rank, (-id));
+
+-- Ricerca delle task da archiviare: solo le concluse, per data di ultima modifica
+CREATE INDEX idx_tasks_finished_updated_at ON tasks (updated_at)
+    WHERE status IN ('COMPLETED', 'CANCELLED');
+
+COMMENT ON TABLE tasks_archive IS 'Task concluse spostate fuori dalla tabella tasks (sola lettura)';
+COMMENT ON COLUMN tasks_archive.archived_at IS 'Momento dello spostamento in archivio';
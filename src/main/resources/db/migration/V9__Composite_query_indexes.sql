@@ -0,0 +1,20 @@
+-- Indici composti e parziali sulle query effettive di TaskRepository (verificabili con ./dev.sh explain)
+
+-- Ricerca avanzata per status e priorità ordinata per created_at (ordinamento predefinito delle API):
+-- il filtro e l'ordinamento sono serviti dallo stesso indice, LIMIT legge solo le righe della pagina
+CREATE INDEX idx_tasks_status_priority_created_at ON tasks (status, priority, created_at DESC);
+
+-- Filtro sul solo status (ricerca avanzata, /status/{status}, countByStatus) ordinato per created_at
+CREATE INDEX idx_tasks_status_created_at ON tasks (status, created_at DESC);
+
+-- Filtro sulla sola priorità (ricerca avanzata, /priority/{priority}, countByPriority) ordinato per created_at
+CREATE INDEX idx_tasks_priority_created_at ON tasks (priority, created_at DESC);
+
+-- Task scadute e caricamento dell'indice scadenze (due_date < ? / IS NOT NULL AND status != 'COMPLETED'):
+-- l'indice parziale contiene solo le task aperte, che sono le uniche lette
+CREATE INDEX idx_tasks_open_due_date ON tasks (due_date) WHERE status <> 'COMPLETED';
+
+-- Sostituiti dai precedenti (prefissi degli indici composti, o due_date letto solo per le task aperte)
+DROP INDEX IF EXISTS idx_tasks_status;
+DROP INDEX IF EXISTS idx_tasks_priority;
+DROP INDEX IF EXISTS idx_tasks_due_date;
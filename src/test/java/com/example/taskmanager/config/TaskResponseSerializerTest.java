@@ -0,0 +1,169 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// TaskResponseSerializer produce lo stesso JSON della serializzazione standard di Spring Boot (bean + JSR-310,
+// date ISO_LOCAL_DATE_TIME) e, con ?formatted=true, gli stessi valori dei getter formatted* di TaskResponse
+class TaskResponseSerializerTest {
+    
+    private static final List<String> FORMATTED_FIELDS =
+            List.of("formattedDueDate", "formattedCreatedAt", "formattedUpdatedAt");
+    
+    // Stessa configurazione dei mapper di Spring Boot (date come stringhe ISO), con e senza il serializer
+    private final ObjectMapper standardMapper = new Jackson2ObjectMapperBuilder()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper leanMapper = new Jackson2ObjectMapperBuilder()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .serializers(new TaskResponseSerializer())
+            .build();
+    
+    static List<LocalDateTime> dateTimes() {
+        return List.of(
+                // Secondi interi, anche a zero: ISO_LOCAL_DATE_TIME scrive sempre i secondi
+                LocalDateTime.of(2026, 1, 5, 9, 7, 0),
+                LocalDateTime.of(2026, 12, 31, 23, 59, 59),
+                // Frazioni con zeri finali da togliere
+                LocalDateTime.of(2026, 3, 14, 15, 9, 26, 500_000_000),
+                LocalDateTime.of(2026, 3, 14, 15, 9, 26, 123_450_000),
+                LocalDateTime.of(2026, 3, 14, 15, 9, 26, 120_000_000),
+                // Solo microsecondi (precisione di updated_at) e zeri iniziali nella frazione
+                LocalDateTime.of(2026, 3, 14, 15, 9, 26, 123_456_000),
+                LocalDateTime.of(2026, 3, 14, 15, 9, 26, 1_000),
+                LocalDateTime.of(2026, 3, 14, 15, 9, 26, 10_000),
+                // Nanosecondi pieni
+                LocalDateTime.of(2026, 3, 14, 15, 9, 26, 999_999_999),
+                LocalDateTime.of(2026, 3, 14, 15, 9, 26, 1),
+                // Anni a meno di quattro cifre e fuori dal percorso veloce
+                LocalDateTime.of(7, 2, 3, 4, 5, 6, 7_000),
+                LocalDateTime.of(10_000, 1, 1, 0, 0),
+                LocalDateTime.of(-1, 1, 1, 0, 0));
+    }
+    
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+    
+    @ParameterizedTest
+    @MethodSource("dateTimes")
+    void datesMatchStandardSerializer(LocalDateTime dateTime) throws Exception {
+        TaskResponse task = task(dateTime, dateTime, dateTime);
+        
+        JsonNode expected = withoutFormattedFields(standard(task));
+        
+        assertThat(lean(task)).isEqualTo(expected);
+    }
+    
+    @ParameterizedTest
+    @MethodSource("dateTimes")
+    void formattedDatesMatchTaskResponseGetters(LocalDateTime dateTime) throws Exception {
+        requestWithParameter("true");
+        TaskResponse task = task(dateTime, dateTime, dateTime);
+        
+        JsonNode actual = lean(task);
+        
+        assertThat(actual.get("formattedDueDate").asText()).isEqualTo(task.getFormattedDueDate());
+        assertThat(actual.get("formattedCreatedAt").asText()).isEqualTo(task.getFormattedCreatedAt());
+        assertThat(actual.get("formattedUpdatedAt").asText()).isEqualTo(task.getFormattedUpdatedAt());
+    }
+    
+    @Test
+    void formattedRequestMatchesStandardSerializerWithGetters() throws Exception {
+        requestWithParameter("true");
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 14, 15, 9, 26, 123_456_000);
+        TaskResponse task = task(null, createdAt, createdAt.plusNanos(7_000));
+        
+        assertThat(lean(task)).isEqualTo(standard(task));
+    }
+    
+    @Test
+    void formattedFieldsOmittedWithoutParameter() throws Exception {
+        requestWithParameter("false");
+        TaskResponse task = task(LocalDateTime.of(2026, 1, 5, 9, 7), LocalDateTime.of(2026, 1, 1, 8, 0),
+                LocalDateTime.of(2026, 1, 2, 8, 0));
+        
+        JsonNode actual = lean(task);
+        
+        assertThat(actual.has("formattedDueDate")).isFalse();
+        assertThat(actual).isEqualTo(withoutFormattedFields(standard(task)));
+    }
+    
+    @Test
+    void nullFieldsMatchStandardSerializer() throws Exception {
+        TaskResponse task = new TaskResponse();
+        
+        JsonNode actual = lean(task);
+        
+        assertThat(actual).isEqualTo(withoutFormattedFields(standard(task)));
+        assertThat(actual.get("dueDate").isNull()).isTrue();
+        assertThat(actual.get("status").isNull()).isTrue();
+    }
+    
+    @Test
+    void nullDatesWithFormattedParameter() throws Exception {
+        requestWithParameter("true");
+        TaskResponse task = task(null, null, null);
+        
+        JsonNode actual = lean(task);
+        
+        assertThat(actual).isEqualTo(standard(task));
+        for (String field : FORMATTED_FIELDS) {
+            assertThat(actual.get(field).isNull()).isTrue();
+        }
+    }
+    
+    @Test
+    void listMatchesStandardSerializer() throws Exception {
+        List<TaskResponse> tasks = dateTimes().stream().map(dateTime -> task(dateTime, dateTime, dateTime)).toList();
+        
+        JsonNode expected = standard(tasks);
+        expected.forEach(TaskResponseSerializerTest::withoutFormattedFields);
+        
+        assertThat(lean(tasks)).isEqualTo(expected);
+    }
+    
+    // Confronto sul JSON scritto, riletto come albero: l'ordine dei campi non conta
+    private JsonNode standard(Object value) throws Exception {
+        return standardMapper.readTree(standardMapper.writeValueAsString(value));
+    }
+    
+    private JsonNode lean(Object value) throws Exception {
+        return leanMapper.readTree(leanMapper.writeValueAsString(value));
+    }
+    
+    private static void requestWithParameter(String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter(TaskResponseSerializer.FORMATTED_PARAMETER, value);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+    
+    private static JsonNode withoutFormattedFields(JsonNode node) {
+        ((ObjectNode) node).remove(FORMATTED_FIELDS);
+        return node;
+    }
+    
+    private static TaskResponse task(LocalDateTime dueDate, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        return new TaskResponse(7L, "Titolo \"con\" virgolette", "Descrizione àèì", TaskStatus.IN_PROGRESS,
+                TaskPriority.URGENT, dueDate, createdAt, updatedAt, 3L);
+    }
+}
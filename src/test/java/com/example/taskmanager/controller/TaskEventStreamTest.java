@@ -0,0 +1,170 @@
+package com.example.taskmanager.controller;
+
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import com.example.taskmanager.event.TaskChangedEvent;
+import com.example.taskmanager.event.TaskChangedEvent.Type;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Accorpamento degli eventi nella finestra di TaskEventStream e limite dello storico per Last-Event-ID
+class TaskEventStreamTest {
+    
+    private static final long ID = 42L;
+    
+    @Test
+    void createdThenDeletedCancelsOut() {
+        assertThat(TaskEventStream.coalesce(created(TaskStatus.PENDING), deleted(TaskStatus.PENDING))).isNull();
+    }
+    
+    @Test
+    void createdThenArchivedCancelsOut() {
+        assertThat(TaskEventStream.coalesce(created(TaskStatus.COMPLETED), archived(TaskStatus.COMPLETED))).isNull();
+    }
+    
+    @Test
+    void createdThenUpdatedStaysCreatedWithLatestTask() {
+        TaskChangedEvent next = updated(TaskStatus.PENDING, task(TaskStatus.IN_PROGRESS, 1));
+        
+        TaskChangedEvent merged = TaskEventStream.coalesce(created(TaskStatus.PENDING), next);
+        
+        assertThat(merged.getType()).isEqualTo(Type.CREATED);
+        assertThat(merged.getPreviousStatus()).isNull();
+        assertThat(merged.getTask()).isSameAs(next.getTask());
+    }
+    
+    @Test
+    void createdThenStatusChangedStaysCreatedWithLatestTask() {
+        TaskChangedEvent next = statusChanged(TaskStatus.PENDING, task(TaskStatus.COMPLETED, 1));
+        
+        TaskChangedEvent merged = TaskEventStream.coalesce(created(TaskStatus.PENDING), next);
+        
+        assertThat(merged.getType()).isEqualTo(Type.CREATED);
+        assertThat(merged.getTask()).isSameAs(next.getTask());
+    }
+    
+    @Test
+    void updatedThenStatusChangedBecomesUpdatedFromFirstPreviousStatus() {
+        TaskChangedEvent first = updated(TaskStatus.PENDING, task(TaskStatus.IN_PROGRESS, 1));
+        TaskChangedEvent next = statusChanged(TaskStatus.IN_PROGRESS, task(TaskStatus.COMPLETED, 2));
+        
+        TaskChangedEvent merged = TaskEventStream.coalesce(first, next);
+        
+        assertThat(merged.getType()).isEqualTo(Type.UPDATED);
+        assertThat(merged.getPreviousStatus()).isEqualTo(TaskStatus.PENDING);
+        assertThat(merged.getTask()).isSameAs(next.getTask());
+    }
+    
+    @Test
+    void statusChangedThenUpdatedBecomesUpdated() {
+        TaskChangedEvent first = statusChanged(TaskStatus.PENDING, task(TaskStatus.IN_PROGRESS, 1));
+        TaskChangedEvent next = updated(TaskStatus.IN_PROGRESS, task(TaskStatus.IN_PROGRESS, 2));
+        
+        TaskChangedEvent merged = TaskEventStream.coalesce(first, next);
+        
+        assertThat(merged.getType()).isEqualTo(Type.UPDATED);
+        assertThat(merged.getPreviousStatus()).isEqualTo(TaskStatus.PENDING);
+        assertThat(merged.getTask()).isSameAs(next.getTask());
+    }
+    
+    @Test
+    void statusChangedTwiceStaysStatusChangedFromFirstPreviousStatus() {
+        TaskChangedEvent first = statusChanged(TaskStatus.PENDING, task(TaskStatus.IN_PROGRESS, 1));
+        TaskChangedEvent next = statusChanged(TaskStatus.IN_PROGRESS, task(TaskStatus.COMPLETED, 2));
+        
+        TaskChangedEvent merged = TaskEventStream.coalesce(first, next);
+        
+        assertThat(merged.getType()).isEqualTo(Type.STATUS_CHANGED);
+        assertThat(merged.getPreviousStatus()).isEqualTo(TaskStatus.PENDING);
+        assertThat(merged.getTask()).isSameAs(next.getTask());
+    }
+    
+    @Test
+    void updatedThenDeletedBecomesDeletedFromFirstPreviousStatus() {
+        TaskChangedEvent first = updated(TaskStatus.PENDING, task(TaskStatus.IN_PROGRESS, 1));
+        
+        TaskChangedEvent merged = TaskEventStream.coalesce(first, deleted(TaskStatus.IN_PROGRESS));
+        
+        assertThat(merged.getType()).isEqualTo(Type.DELETED);
+        assertThat(merged.getTaskId()).isEqualTo(ID);
+        assertThat(merged.getPreviousStatus()).isEqualTo(TaskStatus.PENDING);
+        assertThat(merged.getTask()).isNull();
+    }
+    
+    @Test
+    void statusChangedThenArchivedBecomesArchivedFromFirstPreviousStatus() {
+        TaskChangedEvent first = statusChanged(TaskStatus.IN_PROGRESS, task(TaskStatus.COMPLETED, 1));
+        
+        TaskChangedEvent merged = TaskEventStream.coalesce(first, archived(TaskStatus.COMPLETED));
+        
+        assertThat(merged.getType()).isEqualTo(Type.ARCHIVED);
+        assertThat(merged.getPreviousStatus()).isEqualTo(TaskStatus.IN_PROGRESS);
+    }
+    
+    @Test
+    void deletedThenCreatedKeepsTheNewTask() {
+        TaskChangedEvent next = created(TaskStatus.PENDING);
+        
+        assertThat(TaskEventStream.coalesce(deleted(TaskStatus.PENDING), next)).isSameAs(next);
+    }
+    
+    @Test
+    void replayFromLatestEventIsComplete() {
+        assertThat(TaskEventStream.canReplay(110, 110, 101L)).isTrue();
+    }
+    
+    @Test
+    void replayFromJustBeforeOldestEventIsComplete() {
+        assertThat(TaskEventStream.canReplay(100, 110, 101L)).isTrue();
+    }
+    
+    @Test
+    void replayFromOldestEventIsComplete() {
+        assertThat(TaskEventStream.canReplay(101, 110, 101L)).isTrue();
+    }
+    
+    @Test
+    void replayMissingOneEventIsIncomplete() {
+        assertThat(TaskEventStream.canReplay(99, 110, 101L)).isFalse();
+    }
+    
+    @Test
+    void replayFromFutureIdIsIncomplete() {
+        assertThat(TaskEventStream.canReplay(111, 110, 101L)).isFalse();
+    }
+    
+    @Test
+    void replayWithEmptyHistoryIsCompleteOnlyFromLatestEvent() {
+        assertThat(TaskEventStream.canReplay(110, 110, null)).isTrue();
+        assertThat(TaskEventStream.canReplay(109, 110, null)).isFalse();
+    }
+    
+    private static TaskChangedEvent created(TaskStatus status) {
+        return TaskChangedEvent.created(task(status, 0));
+    }
+    
+    private static TaskChangedEvent updated(TaskStatus previousStatus, TaskResponse task) {
+        return TaskChangedEvent.updated(previousStatus, task);
+    }
+    
+    private static TaskChangedEvent statusChanged(TaskStatus previousStatus, TaskResponse task) {
+        return TaskChangedEvent.statusChanged(previousStatus, task);
+    }
+    
+    private static TaskChangedEvent deleted(TaskStatus previousStatus) {
+        return TaskChangedEvent.deleted(ID, previousStatus);
+    }
+    
+    private static TaskChangedEvent archived(TaskStatus status) {
+        return TaskChangedEvent.archived(ID, status);
+    }
+    
+    private static TaskResponse task(TaskStatus status, long version) {
+        LocalDateTime now = LocalDateTime.of(2026, 1, 15, 10, 30);
+        return new TaskResponse(ID, "Task " + version, null, status, TaskPriority.MEDIUM, null, now, now, version);
+    }
+}
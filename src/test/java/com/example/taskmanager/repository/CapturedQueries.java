@@ -0,0 +1,238 @@
+package com.example.taskmanager.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+// SQL effettivo delle query di Hibernate (StatementInspector) con i parametri legati dal driver,
+// registrati intercettando i setter dei PreparedStatement. Solo le query del thread corrente:
+// quelle dei job in background (statistiche, archiviazione) non finiscono nelle verifiche
+public class CapturedQueries implements StatementInspector {
+    
+    private final ThreadLocal<List<CapturedQuery>> queries = ThreadLocal.withInitial(ArrayList::new);
+    
+    @Override
+    public String inspect(String sql) {
+        queries.get().add(new CapturedQuery(sql));
+        return sql;
+    }
+    
+    public void clear() {
+        queries.get().clear();
+    }
+    
+    public List<CapturedQuery> getQueries() {
+        return List.copyOf(queries.get());
+    }
+    
+    // DataSource che associa i parametri di ogni PreparedStatement all'ultima query catturata con lo stesso SQL
+    public DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, args, result) ->
+                result instanceof Connection connection ? wrap(connection) : result);
+    }
+    
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                return wrap(statement, (String) args[0]);
+            }
+            return result;
+        });
+    }
+    
+    private PreparedStatement wrap(PreparedStatement statement, String sql) {
+        CapturedQuery query = lastQuery(sql);
+        if (query == null) {
+            return statement;
+        }
+        return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+            if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                query.parameters.put((Integer) args[0], new Parameter(method, args));
+            }
+            return result;
+        });
+    }
+    
+    private CapturedQuery lastQuery(String sql) {
+        List<CapturedQuery> captured = queries.get();
+        for (int i = captured.size() - 1; i >= 0; i--) {
+            if (captured.get(i).sql.equals(sql)) {
+                return captured.get(i);
+            }
+        }
+        return null;
+    }
+    
+    private interface AfterCall {
+        Object apply(Method method, Object[] args, Object result) throws SQLException;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, AfterCall afterCall) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return afterCall.apply(method, args, result);
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+    
+    // Una query eseguita: SQL con i segnaposto ? e i parametri nell'ordine di binding
+    public static class CapturedQuery {
+        
+        private final String sql;
+        private final Map<Integer, Parameter> parameters = new TreeMap<>();
+        
+        CapturedQuery(String sql) {
+            this.sql = sql;
+        }
+        
+        public String getSql() {
+            return sql;
+        }
+        
+        // SQL con i segnaposto numerati ($1, $2, ...) richiesti da PREPARE; i ? nelle stringhe restano
+        public String getNumberedSql() {
+            StringBuilder numbered = new StringBuilder(sql.length() + 16);
+            boolean inLiteral = false;
+            int index = 0;
+            for (char c : sql.toCharArray()) {
+                if (c == '\'') {
+                    inLiteral = !inLiteral;
+                }
+                if (c == '?' && !inLiteral) {
+                    numbered.append('$').append(++index);
+                } else {
+                    numbered.append(c);
+                }
+            }
+            return numbered.toString();
+        }
+        
+        // Tipi dei parametri per PREPARE, dedotti dal setter usato dal driver ("" se la query non ne ha)
+        public String getParameterTypes() {
+            return joined(Parameter::postgresType);
+        }
+        
+        // Argomenti di EXECUTE: gli stessi valori legati alla query reale, come letterali
+        public String getParameterValues() {
+            return joined(Parameter::literal);
+        }
+        
+        private String joined(Function<Parameter, String> mapper) {
+            if (parameters.isEmpty()) {
+                return "";
+            }
+            StringJoiner joiner = new StringJoiner(", ", "(", ")");
+            parameters.values().forEach(parameter -> joiner.add(mapper.apply(parameter)));
+            return joiner.toString();
+        }
+    }
+    
+    // Chiamata a un setter di PreparedStatement (es. setString(3, "PENDING"))
+    static class Parameter {
+        
+        private final Method setter;
+        private final Object[] args;
+        
+        Parameter(Method setter, Object[] args) {
+            this.setter = setter;
+            this.args = args.clone();
+        }
+        
+        // Valore come letterale SQL, convertito da PostgreSQL nel tipo dichiarato in PREPARE
+        String literal() {
+            Object value = setter.getName().equals("setNull") ? null : args[1];
+            if (value == null) {
+                return "NULL";
+            }
+            return "'" + value.toString().replace("'", "''") + "'";
+        }
+        
+        // "unknown" lascia a PostgreSQL la deduzione del tipo, come fa il driver per i tipi non specificati
+        String postgresType() {
+            return switch (setter.getName()) {
+                case "setString", "setNString" -> "varchar";
+                case "setInt" -> "integer";
+                case "setLong" -> "bigint";
+                case "setShort" -> "smallint";
+                case "setBoolean" -> "boolean";
+                case "setDouble" -> "double precision";
+                case "setFloat" -> "real";
+                case "setBigDecimal" -> "numeric";
+                case "setTimestamp" -> "timestamp";
+                case "setDate" -> "date";
+                case "setBytes" -> "bytea";
+                case "setNull" -> typeOf((Integer) args[1]);
+                case "setObject" -> args.length > 2 && args[2] instanceof Integer sqlType
+                        ? typeOf(sqlType) : typeOf(args[1]);
+                default -> "unknown";
+            };
+        }
+        
+        private static String typeOf(int sqlType) {
+            return switch (sqlType) {
+                case Types.VARCHAR, Types.CHAR, Types.LONGVARCHAR, Types.NVARCHAR -> "varchar";
+                case Types.INTEGER -> "integer";
+                case Types.BIGINT -> "bigint";
+                case Types.SMALLINT, Types.TINYINT -> "smallint";
+                case Types.BOOLEAN, Types.BIT -> "boolean";
+                case Types.DOUBLE -> "double precision";
+                case Types.REAL, Types.FLOAT -> "real";
+                case Types.NUMERIC, Types.DECIMAL -> "numeric";
+                case Types.TIMESTAMP -> "timestamp";
+                case Types.TIMESTAMP_WITH_TIMEZONE -> "timestamptz";
+                case Types.DATE -> "date";
+                case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY -> "bytea";
+                default -> "unknown";
+            };
+        }
+        
+        private static String typeOf(Object value) {
+            if (value instanceof String) {
+                return "varchar";
+            }
+            if (value instanceof Integer) {
+                return "integer";
+            }
+            if (value instanceof Long) {
+                return "bigint";
+            }
+            if (value instanceof BigDecimal) {
+                return "numeric";
+            }
+            if (value instanceof LocalDateTime) {
+                return "timestamp";
+            }
+            if (value instanceof OffsetDateTime) {
+                return "timestamptz";
+            }
+            if (value instanceof LocalDate) {
+                return "date";
+            }
+            return "unknown";
+        }
+    }
+}
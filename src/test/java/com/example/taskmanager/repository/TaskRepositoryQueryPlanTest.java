@@ -0,0 +1,223 @@
+package com.example.taskmanager.repository;
+
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Piani di esecuzione delle query di TaskRepository su PostgreSQL con 200k task: ogni metodo viene chiamato
+// con parametri reali, il SQL generato da Hibernate e i valori legati sono catturati e ripreparati con
+// plan_cache_mode = force_generic_plan, cioè il piano che PostgreSQL può riusare per ogni valore quando
+// il driver prepara la query lato server (dopo prepareThreshold esecuzioni). Il test fallisce se un piano
+// legge l'intera tabella tasks (Seq Scan). Escluse le query che leggono tutte le righe per definizione
+// (COUNT senza filtri, findAllTitles, export) e quelle non usate dall'applicazione (countByStatus).
+// Richiede Docker: senza viene saltato
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        // Nessuno spostamento in archivio delle task seminate durante il test
+        "taskmanager.archive.enabled=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class TaskRepositoryQueryPlanTest {
+    
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    
+    private static final Pattern FULL_SCAN = Pattern.compile("Seq Scan on tasks\\b");
+    
+    private static final Pageable PAGE = PageRequest.of(10, 20, Sort.by("createdAt").descending());
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private CapturedQueries capturedQueries;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @TestConfiguration
+    static class QueryCaptureConfig {
+        
+        @Bean
+        CapturedQueries capturedQueries() {
+            return new CapturedQueries();
+        }
+        
+        @Bean
+        HibernatePropertiesCustomizer statementInspector(CapturedQueries capturedQueries) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, capturedQueries);
+        }
+        
+        @Bean
+        static BeanPostProcessor capturingDataSource(ObjectProvider<CapturedQueries> capturedQueries) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? capturedQueries.getObject().wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+    
+    @BeforeAll
+    static void seed(@Autowired DataSource dataSource) {
+        new ResourceDatabasePopulator(new ClassPathResource("db/seed-query-plans.sql")).execute(dataSource);
+    }
+    
+    @BeforeEach
+    void clearCapturedQueries() {
+        capturedQueries.clear();
+    }
+    
+    @Test
+    void findResponseById() {
+        assertNoFullScan(() -> taskRepository.findResponseById(1000L));
+    }
+    
+    @Test
+    void findResponsesByStatus() {
+        assertNoFullScan(() -> taskRepository.findResponsesByStatus(TaskStatus.IN_PROGRESS));
+    }
+    
+    @Test
+    void findResponsesByPriority() {
+        assertNoFullScan(() -> taskRepository.findResponsesByPriority(TaskPriority.URGENT));
+    }
+    
+    @Test
+    void findOverdueResponses() {
+        assertNoFullScan(() -> taskRepository.findOverdueResponses(LocalDateTime.now()));
+    }
+    
+    @Test
+    void findOpenResponsesWithDueDate() {
+        assertNoFullScan(() -> taskRepository.findOpenResponsesWithDueDate());
+    }
+    
+    @Test
+    void findResponsesByTitleContaining() {
+        assertNoFullScan(() -> taskRepository.findResponsesByTitleContaining("prova 1234"));
+    }
+    
+    @Test
+    void findTasksWithFilters() {
+        assertNoFullScan(() -> taskRepository.findTasksWithFilters(null, TaskStatus.PENDING, TaskPriority.HIGH, PAGE));
+        assertNoFullScan(() -> taskRepository.findTasksWithFilters(null, TaskStatus.IN_PROGRESS, null, PAGE));
+        assertNoFullScan(() -> taskRepository.findTasksWithFilters(null, null, TaskPriority.URGENT, PAGE));
+        assertNoFullScan(() -> taskRepository.findTasksWithFilters("prova 1234", null, null, PAGE));
+    }
+    
+    @Test
+    void findSliceWithFilters() {
+        assertNoFullScan(() -> taskRepository.findSliceWithFilters(null, TaskStatus.PENDING, TaskPriority.HIGH, PAGE));
+        assertNoFullScan(() -> taskRepository.findSliceWithFilters(null, null, TaskPriority.URGENT, PAGE));
+        assertNoFullScan(() -> taskRepository.findSliceWithFilters("prova 1234", TaskStatus.PENDING, null, PAGE));
+    }
+    
+    @Test
+    void countWithFilters() {
+        assertNoFullScan(() -> taskRepository.countWithFilters(null, TaskStatus.IN_PROGRESS, null));
+        assertNoFullScan(() -> taskRepository.countWithFilters(null, TaskStatus.PENDING, TaskPriority.HIGH));
+        assertNoFullScan(() -> taskRepository.countWithFilters("prova 1234", null, null));
+    }
+    
+    @Test
+    void customOrder() {
+        assertNoFullScan(() -> taskRepository.findSliceWithCustomOrder(PageRequest.of(0, 20)));
+        assertNoFullScan(() -> taskRepository.findFirstWithCustomOrder(Limit.of(21)));
+        assertNoFullScan(() -> taskRepository.findNextWithCustomOrder(1, 2, -150000L, Limit.of(21)));
+    }
+    
+    @Test
+    void searchFullTextPostgres() {
+        assertNoFullScan(() -> taskRepository.searchFullTextPostgres("prova 1234", PageRequest.of(0, 20)));
+    }
+    
+    @Test
+    void lockArchivable() {
+        // FOR UPDATE richiede una transazione di scrittura, come nello spostamento in archivio
+        assertNoFullScan(() -> new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> taskRepository.lockArchivable(LocalDateTime.now().minusDays(29), 1000)));
+    }
+    
+    // Esegue la chiamata e verifica il piano generico di ogni query che ha inviato al database
+    private void assertNoFullScan(Runnable repositoryCall) {
+        capturedQueries.clear();
+        repositoryCall.run();
+        List<CapturedQueries.CapturedQuery> queries = capturedQueries.getQueries();
+        assertThat(queries).as("query catturate").isNotEmpty();
+        for (CapturedQueries.CapturedQuery query : queries) {
+            String plan = genericPlan(query);
+            assertThat(FULL_SCAN.matcher(plan).find())
+                    .as("scansione completa di tasks per%n%s%n%s", query.getSql(), plan)
+                    .isFalse();
+        }
+    }
+    
+    // EXPLAIN del piano generico: PREPARE con i tipi dei parametri reali, EXECUTE con gli stessi valori
+    private String genericPlan(CapturedQueries.CapturedQuery query) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                try {
+                    statement.execute("PREPARE plan_check" + query.getParameterTypes() + " AS " + query.getNumberedSql());
+                    try (ResultSet rows = statement.executeQuery(
+                            "EXPLAIN EXECUTE plan_check" + query.getParameterValues())) {
+                        return planText(rows);
+                    } finally {
+                        statement.execute("DEALLOCATE plan_check");
+                    }
+                } finally {
+                    statement.execute("RESET plan_cache_mode");
+                }
+            }
+        });
+    }
+    
+    private static String planText(ResultSet rows) throws SQLException {
+        StringJoiner plan = new StringJoiner("\n");
+        while (rows.next()) {
+            plan.add(rows.getString(1));
+        }
+        return plan.toString();
+    }
+}
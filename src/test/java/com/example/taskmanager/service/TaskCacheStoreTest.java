@@ -0,0 +1,104 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.constants.TaskConstants;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Un caricamento che ha letto la task prima di una modifica non rimette in cache la versione vecchia,
+// anche se finisce dopo l'invalidazione e dopo il caricamento della versione nuova
+class TaskCacheStoreTest {
+    
+    private static final Long ID = 1L;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 1, 10, 9, 0);
+    
+    private final TaskCacheStore store = new TaskCacheStore(cacheManager(), Duration.ofSeconds(30));
+    
+    @Test
+    void loadStartedBeforeUpdateDoesNotOverwriteNewVersion() {
+        TaskResponse loaded = store.load(ID, () -> {
+            // Il caricamento ha letto la versione 1; intanto la modifica viene confermata e invalidata,
+            // e un altro miss carica la versione 2
+            TaskResponse stale = task(1L);
+            store.invalidate(ID);
+            store.load(ID, () -> task(2L));
+            return stale;
+        });
+        
+        assertThat(loaded.getVersion()).isEqualTo(1L);
+        assertThat(store.get(ID).getVersion()).isEqualTo(2L);
+    }
+    
+    @Test
+    void loadStartedBeforeInvalidationIsNotCached() {
+        store.load(ID, () -> task(1L));
+        
+        store.load(ID, () -> {
+            TaskResponse stale = task(1L);
+            store.invalidate(ID);
+            return stale;
+        });
+        
+        assertThat(store.get(ID)).isNull();
+    }
+    
+    @Test
+    void loadAfterInvalidationIsCached() {
+        store.load(ID, () -> task(1L));
+        store.invalidate(ID);
+        
+        store.load(ID, () -> task(2L));
+        
+        assertThat(store.get(ID).getVersion()).isEqualTo(2L);
+    }
+    
+    @Test
+    void olderVersionNeverReplacesNewerOne() {
+        store.load(ID, () -> task(3L));
+        
+        store.load(ID, () -> task(2L));
+        
+        assertThat(store.get(ID).getVersion()).isEqualTo(3L);
+    }
+    
+    @Test
+    void slowLoadIsNotCached() {
+        TaskCacheStore shortTombstones = new TaskCacheStore(cacheManager(), Duration.ofMillis(1));
+        
+        shortTombstones.load(ID, () -> {
+            sleep(Duration.ofMillis(20));
+            return task(1L);
+        });
+        
+        assertThat(shortTombstones.get(ID)).isNull();
+    }
+    
+    private static CaffeineCacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of(TaskConstants.TASK_CACHE));
+        cacheManager.setCacheSpecification("maximumSize=100,expireAfterWrite=60s");
+        return cacheManager;
+    }
+    
+    private static TaskResponse task(Long version) {
+        return new TaskResponse(ID, "Task", null, TaskStatus.PENDING, TaskPriority.MEDIUM, null,
+                CREATED_AT, CREATED_AT.plusMinutes(version), version);
+    }
+    
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.config.DatabaseFeatures;
+import com.example.taskmanager.constants.TaskConstants;
+import com.example.taskmanager.dto.TaskResponse;
+import com.example.taskmanager.entity.TaskPriority;
+import com.example.taskmanager.entity.TaskStatus;
+import com.example.taskmanager.event.TaskChangedEvent;
+import com.example.taskmanager.repository.ArchivedTaskRepository;
+import com.example.taskmanager.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Dopo il commit di una modifica l'ETag di GET /api/tasks/{id} non è mai quello della versione precedente
+// (niente 304 per chi ha la versione vecchia), neanche nella finestra fra il commit e l'invalidazione della cache
+// o con un caricamento partito prima del commit
+class TaskFingerprintAfterUpdateTest {
+    
+    private static final Long ID = 1L;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 1, 10, 9, 0);
+    private static final String OLD_ETAG = "\"1-1\"";
+    private static final String NEW_ETAG = "\"1-2\"";
+    
+    // Riga della task sul database
+    private final AtomicReference<TaskResponse> row = new AtomicReference<>(task(1L));
+    
+    private TaskService taskService;
+    private TaskCacheInvalidator invalidator;
+    
+    @BeforeEach
+    void setUp() {
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        when(taskRepository.findResponseById(any())).thenAnswer(invocation -> Optional.of(row.get()));
+        when(taskRepository.findVersionById(any())).thenAnswer(invocation -> Optional.of(version(row.get())));
+        
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of(TaskConstants.TASK_CACHE));
+        TaskCacheStore taskCache = new TaskCacheStore(cacheManager, Duration.ofSeconds(30));
+        SingleFlight<Long, TaskResponse> taskLoads = new SingleFlight<>("task", new SimpleMeterRegistry());
+        invalidator = new TaskCacheInvalidator(taskCache, taskLoads);
+        taskService = new TaskService(taskRepository, mock(ArchivedTaskRepository.class), mock(TaskStatsStore.class),
+                mock(ApplicationEventPublisher.class), mock(DatabaseFeatures.class), mock(TaskSuggestIndex.class),
+                mock(TaskDueDateIndex.class), mock(TaskCountEstimator.class), mock(TaskDataVersion.class),
+                taskCache, taskLoads);
+        
+        TransactionSynchronizationManager.initSynchronization();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+    
+    @Test
+    void noOldEtagBetweenCommitAndInvalidation() {
+        assertThat(taskService.getTaskById(ID).getVersion()).isEqualTo(1L);
+        assertThat(etag()).isEqualTo(OLD_ETAG);
+        
+        beforeCommit(task(2L));
+        // Prima del commit la versione 1 è ancora quella confermata
+        assertThat(etag()).isEqualTo(OLD_ETAG);
+        
+        row.set(task(2L));
+        assertThat(etag()).isEqualTo(NEW_ETAG);
+        
+        afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(etag()).isEqualTo(NEW_ETAG);
+        assertThat(taskService.getTaskById(ID).getVersion()).isEqualTo(2L);
+        assertThat(etag()).isEqualTo(NEW_ETAG);
+    }
+    
+    @Test
+    void loadStartedBeforeCommitDoesNotServeOldEtag() {
+        beforeCommit(task(2L));
+        // Miss durante il commit: legge la versione 1, ancora confermata, e la mette in cache
+        assertThat(taskService.getTaskById(ID).getVersion()).isEqualTo(1L);
+        
+        row.set(task(2L));
+        assertThat(etag()).isEqualTo(NEW_ETAG);
+        
+        afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(etag()).isEqualTo(NEW_ETAG);
+        assertThat(taskService.getTaskById(ID).getVersion()).isEqualTo(2L);
+    }
+    
+    @Test
+    void rollbackKeepsPreviousEtag() {
+        taskService.getTaskById(ID);
+        
+        beforeCommit(task(2L));
+        afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        
+        assertThat(etag()).isEqualTo(OLD_ETAG);
+    }
+    
+    private String etag() {
+        return taskService.getTaskFingerprint(ID).getEtag();
+    }
+    
+    private void beforeCommit(TaskResponse updated) {
+        invalidator.onTaskChanging(TaskChangedEvent.updated(TaskStatus.PENDING, updated));
+    }
+    
+    private static void afterCompletion(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+    
+    private static TaskResponse task(Long version) {
+        return new TaskResponse(ID, "Task", null, TaskStatus.PENDING, TaskPriority.MEDIUM, null,
+                CREATED_AT, CREATED_AT.plusMinutes(version), version);
+    }
+    
+    private static TaskRepository.TaskVersion version(TaskResponse task) {
+        return new TaskRepository.TaskVersion() {
+            @Override
+            public Long getVersion() {
+                return task.getVersion();
+            }
+            
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return task.getUpdatedAt();
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+-- Dati per TaskRepositoryQueryPlanTest: 200k task con una distribuzione simile a una tabella reale,
+-- in ordine di creazione: le task vecchie sono concluse (80%, di cui un ottavo CANCELLED),
+-- le più recenti PENDING o IN_PROGRESS; scadenza sul 20% delle task.
+
+INSERT INTO tasks (title, description, status, priority, status_rank, priority_rank, due_date, created_at, updated_at)
+SELECT 'Task di prova ' || n,
+       'Descrizione della task di prova ' || n,
+       s.status,
+       p.priority,
+       s.status_rank,
+       p.priority_rank,
+       CASE WHEN n % 5 = 0 THEN now() + ((n % 120) - 60) * interval '1 day' END,
+       now() - (200000 - n) * interval '1 minute',
+       now() - (200000 - n) * interval '1 minute'
+FROM generate_series(1, 200000) AS n
+CROSS JOIN LATERAL (SELECT CASE WHEN n <= 160000 AND n % 8 = 0 THEN 'CANCELLED'
+                                WHEN n <= 160000 THEN 'COMPLETED'
+                                WHEN n % 2 = 0 THEN 'PENDING' ELSE 'IN_PROGRESS' END AS status) AS s0
+CROSS JOIN LATERAL (SELECT s0.status,
+                           CASE s0.status WHEN 'IN_PROGRESS' THEN 1 WHEN 'PENDING' THEN 2
+                                          WHEN 'COMPLETED' THEN 3 ELSE 4 END AS status_rank) AS s
+CROSS JOIN LATERAL (SELECT (ARRAY['LOW', 'MEDIUM', 'HIGH', 'URGENT'])[n % 4 + 1] AS priority,
+                           (ARRAY[4, 3, 2, 1])[n % 4 + 1] AS priority_rank) AS p;
+
+-- Statistiche e visibility map come dopo l'autovacuum di una tabella in uso: senza, i COUNT non possono
+-- usare un index-only scan
+VACUUM ANALYZE tasks;